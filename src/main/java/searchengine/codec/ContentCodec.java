@@ -0,0 +1,8 @@
+package searchengine.codec;
+
+public interface ContentCodec {
+    int getId();
+    String getName();
+    byte[] encode(String content);
+    String decode(byte[] data);
+}
@@ -0,0 +1,25 @@
+package searchengine.codec;
+
+import java.util.List;
+
+public class ContentCodecs {
+    private static final List<ContentCodec> CODECS = List.of(new PlainContentCodec(), new DeflateContentCodec());
+
+    public static ContentCodec get(int id) {
+        for (ContentCodec codec : CODECS) {
+            if (codec.getId() == id) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown content codec id " + id);
+    }
+
+    public static ContentCodec getByName(String name) {
+        for (ContentCodec codec : CODECS) {
+            if (codec.getName().equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown content codec " + name);
+    }
+}
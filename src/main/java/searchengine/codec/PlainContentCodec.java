@@ -0,0 +1,27 @@
+package searchengine.codec;
+
+import java.nio.charset.StandardCharsets;
+
+public class PlainContentCodec implements ContentCodec {
+    public static final int ID = 0;
+
+    @Override
+    public int getId() {
+        return ID;
+    }
+
+    @Override
+    public String getName() {
+        return "plain";
+    }
+
+    @Override
+    public byte[] encode(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decode(byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package searchengine.codec;
+
+import java.util.Arrays;
+
+/**
+ * Упаковка возрастающих последовательностей целых чисел: хранятся разности соседних значений
+ * в формате varint, по 7 бит на байт, старший бит - признак продолжения.
+ */
+public class VarIntCodec {
+    public static byte[] encodeDeltas(int[] values) {
+        byte[] buffer = new byte[values.length * 5];
+        int length = 0;
+        int previous = 0;
+        for (int value : values) {
+            int delta = value - previous;
+            previous = value;
+            while ((delta & ~0x7F) != 0) {
+                buffer[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            buffer[length++] = (byte) delta;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public static int[] decodeDeltas(byte[] data) {
+        if (data == null) {
+            return new int[0];
+        }
+        int[] values = new int[data.length];
+        int count = 0;
+        int previous = 0;
+        int index = 0;
+        while (index < data.length) {
+            int delta = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = data[index++];
+                delta |= (current & 0x7F) << shift;
+                shift += 7;
+            } while (current < 0 && index < data.length);
+            previous += delta;
+            values[count++] = previous;
+        }
+        return Arrays.copyOf(values, count);
+    }
+}
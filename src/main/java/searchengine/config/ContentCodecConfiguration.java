@@ -0,0 +1,14 @@
+package searchengine.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import searchengine.codec.ContentCodec;
+import searchengine.codec.ContentCodecs;
+
+@Configuration
+public class ContentCodecConfiguration {
+    @Bean
+    public ContentCodec contentCodec(StorageConfiguration storageConfiguration) {
+        return ContentCodecs.getByName(storageConfiguration.getContentCodec());
+    }
+}
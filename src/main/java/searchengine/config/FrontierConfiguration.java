@@ -0,0 +1,16 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "frontier-settings")
+public class FrontierConfiguration {
+    private boolean bloomFilter = false;
+    private int expectedUrls = 1_000_000;
+    private double falsePositiveRate = 0.001;
+}
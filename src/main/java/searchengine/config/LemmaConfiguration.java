@@ -2,15 +2,25 @@ package searchengine.config;
 
 import org.apache.lucene.morphology.LuceneMorphology;
 import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import searchengine.parsers.LemmaFinder;
 
 import java.io.IOException;
 
 @Configuration
 public class LemmaConfiguration {
+    @Value("${lemma-settings.cache-capacity:100000}")
+    private long cacheCapacity;
+
     @Bean
     public LuceneMorphology luceneMorphology() throws IOException {
         return new RussianLuceneMorphology();
     }
+
+    @Bean
+    public LemmaFinder lemmaFinder(LuceneMorphology luceneMorphology) {
+        return new LemmaFinder(luceneMorphology, cacheCapacity);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import searchengine.crawler.FetchMode;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "pipeline-settings")
+public class PipelineConfiguration {
+    private FetchMode fetchMode = FetchMode.PLATFORM;
+    private int maxConnections = 64;
+    private int fetchThreads = 4;
+    private int parseThreads = 2;
+    private int analyzeThreads = Runtime.getRuntime().availableProcessors();
+    private int persistThreads = 1;
+    private int queueCapacity = 200;
+    private int persistBatchSize = 100;
+    private int jdbcBatchSize = 1000;
+}
@@ -0,0 +1,18 @@
+package searchengine.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "politeness-settings")
+public class PolitenessConfiguration {
+    private long defaultDelayMillis = 500;
+    private long maxDelayMillis = 60000;
+    private int maxHostConnections = 1;
+    private int virtualHostConnections = 16;
+    private boolean respectCrawlDelay = true;
+}
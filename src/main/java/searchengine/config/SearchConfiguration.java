@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import searchengine.search.ScoringMode;
+import searchengine.search.SearchBackend;
 
 @Getter
 @Setter
@@ -14,4 +16,21 @@ public class SearchConfiguration {
     @Value("${search-settings.user-agent}")
     private String userAgentName;
     private String referrer;
+    private long resultCacheSize = 10000;
+    private long resultCacheTtlSeconds = 300;
+    private long snapshotCacheSize = 1000;
+    private long snapshotTtlSeconds = 60;
+    private int snapshotDepth = 200;
+    private int exactCountThreshold = 1000;
+    private int suggestMaxLimit = 50;
+    private long suggestionRebuildDelayMillis = 2000;
+    private boolean fuzzySearch = false;
+    private int fuzzyMaxDistance = 2;
+    private int fuzzyMaxExpansions = 5;
+    private SearchBackend backend = SearchBackend.MEMORY;
+    private ScoringMode scoring = ScoringMode.BM25;
+    private double bm25K1 = 1.2;
+    private double bm25B = 0.75;
+    private int searchThreads = Runtime.getRuntime().availableProcessors();
+    private int searchQueueCapacity = 1000;
 }
@@ -1,14 +1,19 @@
 package searchengine.controllers;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import searchengine.dto.indexing.IndexingResponse;
 import searchengine.dto.search.SearchRequest;
 import searchengine.dto.search.SearchResponse;
 import searchengine.dto.statistics.StatisticsResponse;
+import searchengine.dto.suggest.SuggestResponse;
+import searchengine.services.IndexingProgressService;
 import searchengine.services.IndexingService;
 import searchengine.services.StatisticsService;
 import searchengine.services.SearchService;
+import searchengine.services.SuggestService;
 import java.io.IOException;
 
 @RestController
@@ -18,11 +23,16 @@ public class ApiController {
     private final StatisticsService statisticsService;
     private final IndexingService indexingService;
     private final SearchService searchService;
+    private final SuggestService suggestService;
+    private final IndexingProgressService indexingProgressService;
 
-    public ApiController(StatisticsService statisticsService, IndexingService indexingService, SearchService searchService) {
+    public ApiController(StatisticsService statisticsService, IndexingService indexingService, SearchService searchService,
+                         SuggestService suggestService, IndexingProgressService indexingProgressService) {
         this.statisticsService = statisticsService;
         this.indexingService   = indexingService;
         this.searchService   = searchService;
+        this.suggestService = suggestService;
+        this.indexingProgressService = indexingProgressService;
     }
 
     @GetMapping("/statistics")
@@ -40,6 +50,11 @@ public class ApiController {
         return ResponseEntity.ok(indexingService.stopIndexing());
     }
 
+    @GetMapping(path = "/indexingProgress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter indexingProgress() {
+        return indexingProgressService.subscribe();
+    }
+
     @PostMapping("/indexPage")
     public ResponseEntity<IndexingResponse> indexPage(@RequestParam("url") String url) {
         try {
@@ -54,10 +69,20 @@ public class ApiController {
                                                  @RequestParam(name = "site", required = false,
                                                          defaultValue = "All") String site,
                                                  @RequestParam(name = "offset", defaultValue = "0") int offset,
-                                                 @RequestParam(name = "limit", defaultValue = "2") int limit) {
-        SearchRequest request = new SearchRequest(query, site, offset, limit);
+                                                 @RequestParam(name = "limit", defaultValue = "2") int limit,
+                                                 @RequestParam(name = "cursor", required = false) String cursor,
+                                                 @RequestParam(name = "fuzzy", required = false) Boolean fuzzy) {
+        SearchRequest request = new SearchRequest(query, site, offset, limit, cursor, fuzzy);
         return ResponseEntity.ok(searchService.search(request));
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<SuggestResponse> suggest(@RequestParam(name = "prefix", defaultValue = "") String prefix,
+                                                   @RequestParam(name = "site", required = false,
+                                                           defaultValue = "All") String site,
+                                                   @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return ResponseEntity.ok(suggestService.suggest(prefix, site, limit));
+    }
+
 
 }
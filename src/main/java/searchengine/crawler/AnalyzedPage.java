@@ -0,0 +1,13 @@
+package searchengine.crawler;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import searchengine.model.Page;
+import searchengine.parsers.PageLemmas;
+
+@Getter
+@RequiredArgsConstructor
+public class AnalyzedPage {
+    private final Page page;
+    private final PageLemmas lemmas;
+}
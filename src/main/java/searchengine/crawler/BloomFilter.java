@@ -0,0 +1,41 @@
+package searchengine.crawler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class BloomFilter {
+    private static final int LOCK_STRIPES = 64;
+    private final AtomicLongArray bits;
+    private final long bitsCount;
+    private final int hashCount;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public BloomFilter(int expectedItems, double falsePositiveRate) {
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedItems * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int words = (int) Math.max(1, (optimalBits + Long.SIZE - 1) / Long.SIZE);
+        bits = new AtomicLongArray(words);
+        bitsCount = (long) words * Long.SIZE;
+        hashCount = Math.max(1, (int) Math.round((double) bitsCount / expectedItems * ln2));
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    public boolean add(long fingerprint) {
+        synchronized (locks[(int) (fingerprint & (LOCK_STRIPES - 1))]) {
+            boolean added = false;
+            long hash1 = fingerprint;
+            long hash2 = (fingerprint >>> 32) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bitIndex = Math.floorMod(hash1 + i * hash2, bitsCount);
+                int wordIndex = (int) (bitIndex >>> 6);
+                long mask = 1L << bitIndex;
+                long previous = bits.getAndAccumulate(wordIndex, mask, (word, bit) -> word | bit);
+                if ((previous & mask) == 0) {
+                    added = true;
+                }
+            }
+            return added;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package searchengine.crawler;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jsoup.nodes.Document;
+import searchengine.config.PipelineConfiguration;
+import searchengine.model.Page;
+import searchengine.model.Site;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Обход одного сайта в виде конвейера fetch -> parse -> analyze -> persist.
+ * Стадии связаны ограниченными очередями: если запись в БД не успевает,
+ * очереди заполняются и блокируют предыдущие стадии вплоть до загрузки страниц.
+ * Загрузку выполняет общий для всех сайтов {@link PolitenessScheduler}.
+ * Ход обхода стадии отмечают в {@link CrawlProgress}, снимок вместе с размерами очередей
+ * отдаёт {@link #getProgress()}.
+ */
+public class CrawlPipeline implements FetchCallback {
+    private static final long POLL_TIMEOUT_MILLIS = 200;
+    private static final AtomicLong NEXT_PIPELINE_ID = new AtomicLong();
+    private final long pipelineId = NEXT_PIPELINE_ID.incrementAndGet();
+    private final Site site;
+    private final PipelineConfiguration configuration;
+    private final PipelineStages stages;
+    private final PolitenessScheduler scheduler;
+    private final Logger logger = LogManager.getLogger("indexingServiceLogger");
+    private final UrlFrontier frontier;
+    private final BlockingQueue<FetchedPage> fetchedPages;
+    private final BlockingQueue<Page> parsedPages;
+    private final BlockingQueue<AnalyzedPage> analyzedPages;
+    private final AtomicInteger pendingPages = new AtomicInteger();
+    private final CrawlProgress progress = new CrawlProgress();
+    private final CountDownLatch completion = new CountDownLatch(1);
+    private final List<ExecutorService> executors = new ArrayList<>();
+    private volatile boolean stopped;
+
+    public CrawlPipeline(Site site, PipelineConfiguration configuration, PipelineStages stages,
+                         PolitenessScheduler scheduler, UrlFrontier frontier) {
+        this.site = site;
+        this.configuration = configuration;
+        this.stages = stages;
+        this.scheduler = scheduler;
+        this.frontier = frontier;
+        int capacity = configuration.getQueueCapacity();
+        fetchedPages = new ArrayBlockingQueue<>(capacity);
+        parsedPages = new ArrayBlockingQueue<>(capacity);
+        analyzedPages = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public void run(String startLink) throws InterruptedException {
+        addLink(startLink);
+        startStage("parse", configuration.getParseThreads(), this::parseNextPage);
+        startStage("analyze", configuration.getAnalyzeThreads(), this::analyzeNextPage);
+        startStage("persist", configuration.getPersistThreads(), this::persistNextPages);
+        try {
+            completion.await();
+        } finally {
+            shutdownStages();
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+        completion.countDown();
+        shutdownStages();
+    }
+
+    public ProgressSnapshot getProgress() {
+        return new ProgressSnapshot(site.getUrl(), site.getName(), pipelineId, !isDone(), System.nanoTime(),
+                progress.getFetchedPages(), progress.getFailedPages(), progress.getParsedPages(),
+                progress.getPersistedPages(), frontier.size(), pendingPages.get(), fetchedPages.size(),
+                parsedPages.size(), analyzedPages.size(), progress.getFetchLatencyCounts(),
+                progress.getFlushTimeCounts());
+    }
+
+    @Override
+    public boolean isActive() {
+        return !isDone();
+    }
+
+    @Override
+    public boolean canAcceptPage() {
+        return fetchedPages.remainingCapacity() > 0;
+    }
+
+    @Override
+    public void onFetched(String link, Document document, long latencyNanos) throws InterruptedException {
+        progress.recordFetched(latencyNanos);
+        FetchedPage fetchedPage = new FetchedPage(link, document);
+        while (!fetchedPages.offer(fetchedPage, POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (isDone()) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onFailed(String link, Exception exception) {
+        logger.error("Error fetch page " + link + ": " + exception.getMessage());
+        progress.recordFailed();
+        completePages(1);
+    }
+
+    private void addLink(String link) {
+        String canonicalLink = frontier.add(link);
+        if (canonicalLink != null) {
+            pendingPages.incrementAndGet();
+            scheduler.submit(canonicalLink, this);
+        }
+    }
+
+    private void completePages(int count) {
+        if (pendingPages.addAndGet(-count) == 0) {
+            completion.countDown();
+        }
+    }
+
+    private boolean isDone() {
+        return stopped || completion.getCount() == 0;
+    }
+
+    private void startStage(String name, int threadsCount, StageStep step) {
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount, getThreadFactory(name));
+        synchronized (executors) {
+            executors.add(executor);
+        }
+        for (int i = 0; i < threadsCount; i++) {
+            executor.execute(() -> runStageLoop(name, step));
+        }
+    }
+
+    private ThreadFactory getThreadFactory(String stageName) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        String prefix = site.getName() + "-" + stageName + "-";
+        return runnable -> new Thread(runnable, prefix + threadNumber.incrementAndGet());
+    }
+
+    private void runStageLoop(String stageName, StageStep step) {
+        while (!isDone()) {
+            try {
+                step.run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Stage " + stageName + " error site " + site.getUrl() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void parseNextPage() throws InterruptedException {
+        FetchedPage fetchedPage = fetchedPages.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (fetchedPage == null) {
+            return;
+        }
+        Page page;
+        try {
+            page = stages.parse(fetchedPage.getLink(), fetchedPage.getDocument(), site);
+        } catch (RuntimeException e) {
+            completePages(1);
+            throw e;
+        }
+        progress.recordParsed();
+        page.getChildLinks().forEach(this::addLink);
+        parsedPages.put(page);
+    }
+
+    private void analyzeNextPage() throws InterruptedException {
+        Page page = parsedPages.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if (page == null) {
+            return;
+        }
+        AnalyzedPage analyzedPage;
+        try {
+            analyzedPage = stages.analyze(page);
+        } catch (RuntimeException e) {
+            completePages(1);
+            throw e;
+        }
+        analyzedPages.put(analyzedPage);
+    }
+
+    private void persistNextPages() throws InterruptedException {
+        List<AnalyzedPage> pages = pollPersistBatch();
+        if (pages.isEmpty()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        try {
+            stages.persist(pages, site);
+            progress.recordPersisted(pages.size(), System.nanoTime() - startTime);
+        } finally {
+            completePages(pages.size());
+        }
+    }
+
+    private List<AnalyzedPage> pollPersistBatch() throws InterruptedException {
+        int batchSize = configuration.getPersistBatchSize();
+        List<AnalyzedPage> pages = new ArrayList<>(batchSize);
+        AnalyzedPage page = analyzedPages.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        while (page != null) {
+            pages.add(page);
+            if (pages.size() >= batchSize || isDone()) {
+                break;
+            }
+            page = analyzedPages.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        return pages;
+    }
+
+    private void shutdownStages() {
+        synchronized (executors) {
+            executors.forEach(ExecutorService::shutdownNow);
+        }
+    }
+
+    @FunctionalInterface
+    private interface StageStep {
+        void run() throws InterruptedException;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class FetchedPage {
+        private final String link;
+        private final Document document;
+    }
+}
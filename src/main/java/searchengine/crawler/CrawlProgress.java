@@ -0,0 +1,58 @@
+package searchengine.crawler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики хода обхода сайта, которые стадии конвейера обновляют без блокировок:
+ * LongAdder для числа страниц и {@link LatencyHistogram} для времени загрузки и записи в БД.
+ */
+public class CrawlProgress {
+    private final LongAdder fetchedPages = new LongAdder();
+    private final LongAdder failedPages = new LongAdder();
+    private final LongAdder parsedPages = new LongAdder();
+    private final LongAdder persistedPages = new LongAdder();
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    private final LatencyHistogram flushTime = new LatencyHistogram();
+
+    public void recordFetched(long latencyNanos) {
+        fetchedPages.increment();
+        fetchLatency.record(latencyNanos);
+    }
+
+    public void recordFailed() {
+        failedPages.increment();
+    }
+
+    public void recordParsed() {
+        parsedPages.increment();
+    }
+
+    public void recordPersisted(int pagesCount, long flushNanos) {
+        persistedPages.add(pagesCount);
+        flushTime.record(flushNanos);
+    }
+
+    public long getFetchedPages() {
+        return fetchedPages.sum();
+    }
+
+    public long getFailedPages() {
+        return failedPages.sum();
+    }
+
+    public long getParsedPages() {
+        return parsedPages.sum();
+    }
+
+    public long getPersistedPages() {
+        return persistedPages.sum();
+    }
+
+    public long[] getFetchLatencyCounts() {
+        return fetchLatency.getCounts();
+    }
+
+    public long[] getFlushTimeCounts() {
+        return flushTime.getCounts();
+    }
+}
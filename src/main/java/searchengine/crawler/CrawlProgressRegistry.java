@@ -0,0 +1,35 @@
+package searchengine.crawler;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Конвейеры обхода, идущие сейчас, и последние снимки завершившихся обходов по сайтам.
+ * Завершённый конвейер не хранится, чтобы не удерживать в памяти его очереди и множество адресов.
+ */
+@Component
+public class CrawlProgressRegistry {
+    private final Map<String, CrawlPipeline> activePipelines = new ConcurrentHashMap<>();
+    private final Map<String, ProgressSnapshot> finishedSnapshots = new ConcurrentHashMap<>();
+
+    public void register(String siteUrl, CrawlPipeline pipeline) {
+        finishedSnapshots.remove(siteUrl);
+        activePipelines.put(siteUrl, pipeline);
+    }
+
+    public void unregister(String siteUrl, CrawlPipeline pipeline) {
+        if (activePipelines.remove(siteUrl, pipeline)) {
+            finishedSnapshots.put(siteUrl, pipeline.getProgress());
+        }
+    }
+
+    public List<ProgressSnapshot> getSnapshots() {
+        List<ProgressSnapshot> snapshots = new ArrayList<>(finishedSnapshots.values());
+        activePipelines.values().forEach(pipeline -> snapshots.add(pipeline.getProgress()));
+        return snapshots;
+    }
+}
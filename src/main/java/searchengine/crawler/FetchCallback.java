@@ -0,0 +1,10 @@
+package searchengine.crawler;
+
+import org.jsoup.nodes.Document;
+
+public interface FetchCallback {
+    boolean isActive();
+    boolean canAcceptPage();
+    void onFetched(String link, Document document, long latencyNanos) throws InterruptedException;
+    void onFailed(String link, Exception exception);
+}
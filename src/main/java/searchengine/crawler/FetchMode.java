@@ -0,0 +1,5 @@
+package searchengine.crawler;
+
+public enum FetchMode {
+    PLATFORM, VIRTUAL
+}
@@ -0,0 +1,102 @@
+package searchengine.crawler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Множество 64-битных отпечатков URL с открытой адресацией.
+ * Вставки выполняются через CAS без блокировок; блокировка сегмента
+ * на запись берётся только при увеличении его таблицы.
+ */
+public class FingerprintSet {
+    private static final int SEGMENT_BITS = 4;
+    private static final int INITIAL_SEGMENT_CAPACITY = 256;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final long EMPTY = 0;
+    private final Segment[] segments = new Segment[1 << SEGMENT_BITS];
+
+    public FingerprintSet() {
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public boolean add(long fingerprint) {
+        if (fingerprint == EMPTY) {
+            fingerprint = 1;
+        }
+        return segments[(int) (fingerprint >>> (Long.SIZE - SEGMENT_BITS))].add(fingerprint);
+    }
+
+    private static class Segment {
+        private final ReadWriteLock resizeLock = new ReentrantReadWriteLock();
+        private final AtomicInteger size = new AtomicInteger();
+        private volatile AtomicLongArray table = new AtomicLongArray(INITIAL_SEGMENT_CAPACITY);
+
+        private boolean add(long fingerprint) {
+            while (true) {
+                AtomicLongArray currentTable;
+                int result;
+                resizeLock.readLock().lock();
+                try {
+                    currentTable = table;
+                    result = insert(currentTable, fingerprint);
+                } finally {
+                    resizeLock.readLock().unlock();
+                }
+                if (result < 0) {
+                    return false;
+                }
+                if (result > 0) {
+                    if (size.incrementAndGet() > currentTable.length() * LOAD_FACTOR) {
+                        resize(currentTable);
+                    }
+                    return true;
+                }
+                resize(currentTable);
+            }
+        }
+
+        private static int insert(AtomicLongArray table, long fingerprint) {
+            int mask = table.length() - 1;
+            int index = (int) fingerprint & mask;
+            for (int probes = 0; probes <= mask; probes++) {
+                long current = table.get(index);
+                if (current == fingerprint) {
+                    return -1;
+                }
+                if (current == EMPTY) {
+                    if (table.compareAndSet(index, EMPTY, fingerprint)) {
+                        return 1;
+                    }
+                    if (table.get(index) == fingerprint) {
+                        return -1;
+                    }
+                }
+                index = (index + 1) & mask;
+            }
+            return 0;
+        }
+
+        private void resize(AtomicLongArray oldTable) {
+            resizeLock.writeLock().lock();
+            try {
+                if (table != oldTable) {
+                    return;
+                }
+                AtomicLongArray newTable = new AtomicLongArray(oldTable.length() * 2);
+                for (int i = 0; i < oldTable.length(); i++) {
+                    long fingerprint = oldTable.get(i);
+                    if (fingerprint != EMPTY) {
+                        insert(newTable, fingerprint);
+                    }
+                }
+                table = newTable;
+            } finally {
+                resizeLock.writeLock().unlock();
+            }
+        }
+    }
+}
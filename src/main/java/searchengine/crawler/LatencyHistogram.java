@@ -0,0 +1,81 @@
+package searchengine.crawler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Гистограмма длительностей без блокировок. Значения до 16 мкс хранятся точно, дальше каждая
+ * степень двойки делится на восемь корзин (погрешность не больше 12,5%). Запись - один
+ * инкремент счётчика корзины, перцентили за интервал считаются по разности двух снимков.
+ */
+public class LatencyHistogram {
+    private static final int LINEAR_BUCKETS = 16;
+    private static final int LINEAR_EXPONENT = 4;
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_EXPONENT + 1) * SUB_BUCKETS;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS_COUNT);
+
+    public void record(long nanos) {
+        counts.incrementAndGet(getBucket(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    }
+
+    public long[] getCounts() {
+        long[] snapshot = new long[BUCKETS_COUNT];
+        for (int i = 0; i < BUCKETS_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Перцентиль в микросекундах по значениям, записанным между снимками previousCounts и counts;
+     * previousCounts может быть null. Возвращается верхняя граница корзины, 0 - если записей не было
+     * или снимки несопоставимы (счётчики уменьшились).
+     */
+    public static long getPercentileMicros(long[] counts, long[] previousCounts, double percentile) {
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            total += getDelta(counts, previousCounts, i);
+        }
+        if (total <= 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += getDelta(counts, previousCounts, i);
+            if (seen >= rank) {
+                return getBucketUpperBound(i);
+            }
+        }
+        return getBucketUpperBound(counts.length - 1);
+    }
+
+    private static long getDelta(long[] counts, long[] previousCounts, int bucket) {
+        return previousCounts == null ? counts[bucket] : counts[bucket] - previousCounts[bucket];
+    }
+
+    private static int getBucket(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) Math.max(0, micros);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS_COUNT - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_BUCKETS + (exponent - LINEAR_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long getBucketUpperBound(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_EXPONENT;
+        int subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
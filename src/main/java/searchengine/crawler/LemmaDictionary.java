@@ -0,0 +1,67 @@
+package searchengine.crawler;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Словарь лемм сайта: лемма -> id строки в таблице lemma и накопленное,
+ * ещё не записанное в БД приращение частоты.
+ */
+public class LemmaDictionary {
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public void put(String lemma, int id) {
+        entries.putIfAbsent(lemma, new Entry(id));
+    }
+
+    public void remove(String lemma) {
+        entries.remove(lemma);
+    }
+
+    public Set<String> getUnknownLemmas(Collection<String> lemmas) {
+        Set<String> unknownLemmas = new HashSet<>();
+        for (String lemma : lemmas) {
+            if (!entries.containsKey(lemma)) {
+                unknownLemmas.add(lemma);
+            }
+        }
+        return unknownLemmas;
+    }
+
+    public int addOccurrence(String lemma) {
+        Entry entry = entries.get(lemma);
+        if (entry == null) {
+            return 0;
+        }
+        entry.frequencyDelta.incrementAndGet();
+        return entry.id;
+    }
+
+    public void removeOccurrence(String lemma) {
+        Entry entry = entries.get(lemma);
+        if (entry != null) {
+            entry.frequencyDelta.decrementAndGet();
+        }
+    }
+
+    public Map<String, Integer> drainFrequencyDeltas() {
+        Map<String, Integer> deltas = new HashMap<>();
+        entries.forEach((lemma, entry) -> {
+            int delta = entry.frequencyDelta.getAndSet(0);
+            if (delta != 0) {
+                deltas.put(lemma, delta);
+            }
+        });
+        return deltas;
+    }
+
+    private static class Entry {
+        private final int id;
+        private final AtomicInteger frequencyDelta = new AtomicInteger();
+
+        private Entry(int id) {
+            this.id = id;
+        }
+    }
+}
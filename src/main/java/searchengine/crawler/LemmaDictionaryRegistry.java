@@ -0,0 +1,60 @@
+package searchengine.crawler;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.model.Site;
+import searchengine.repository.LemmaJdbcRepository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class LemmaDictionaryRegistry {
+    private final LemmaJdbcRepository lemmaJdbcRepository;
+    private final Map<Integer, LemmaDictionary> dictionaries = new ConcurrentHashMap<>();
+
+    public LemmaDictionary getDictionary(Site site) {
+        return dictionaries.computeIfAbsent(site.getId(), this::loadDictionary);
+    }
+
+    public void removeDictionary(Site site) {
+        dictionaries.remove(site.getId());
+    }
+
+    public int registerLemmas(Site site, Collection<String> lemmas) {
+        LemmaDictionary dictionary = getDictionary(site);
+        Set<String> unknownLemmas = dictionary.getUnknownLemmas(lemmas);
+        if (unknownLemmas.isEmpty()) {
+            return 0;
+        }
+        lemmaJdbcRepository.insertLemmas(site.getId(), unknownLemmas);
+        lemmaJdbcRepository.findLemmaIds(site.getId(), unknownLemmas).forEach(dictionary::put);
+        return unknownLemmas.size();
+    }
+
+    public void flushFrequencies(Site site) {
+        lemmaJdbcRepository.addFrequencies(site.getId(), getDictionary(site).drainFrequencyDeltas());
+    }
+
+    /**
+     * Уменьшает частоты лемм удалённой страницы через тот же сброс приращений, что и индексация,
+     * и удаляет леммы, частота которых стала нулевой. Возвращает число удалённых лемм.
+     */
+    public int removeOccurrences(Site site, Collection<String> lemmas) {
+        LemmaDictionary dictionary = getDictionary(site);
+        lemmas.forEach(dictionary::removeOccurrence);
+        flushFrequencies(site);
+        Set<String> unusedLemmas = lemmaJdbcRepository.deleteUnusedLemmas(site.getId(), lemmas);
+        unusedLemmas.forEach(dictionary::remove);
+        return unusedLemmas.size();
+    }
+
+    private LemmaDictionary loadDictionary(int siteId) {
+        LemmaDictionary dictionary = new LemmaDictionary();
+        lemmaJdbcRepository.findLemmaIds(siteId).forEach(dictionary::put);
+        return dictionary;
+    }
+}
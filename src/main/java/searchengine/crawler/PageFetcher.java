@@ -0,0 +1,41 @@
+package searchengine.crawler;
+
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Component;
+import searchengine.config.PipelineConfiguration;
+import searchengine.config.SearchConfiguration;
+import searchengine.parsers.HtmlParser;
+import searchengine.parsers.RobotsTxtParser;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+
+@Component
+public class PageFetcher {
+    private final SearchConfiguration configuration;
+    private final Semaphore connections;
+
+    public PageFetcher(SearchConfiguration configuration, PipelineConfiguration pipelineConfiguration) {
+        this.configuration = configuration;
+        this.connections = new Semaphore(pipelineConfiguration.getMaxConnections(), true);
+    }
+
+    public Document fetch(String url) throws IOException, InterruptedException {
+        connections.acquire();
+        try {
+            return HtmlParser.getDocumentByUrl(url, configuration);
+        } finally {
+            connections.release();
+        }
+    }
+
+    public double getCrawlDelaySeconds(String hostUrl) throws IOException, InterruptedException {
+        connections.acquire();
+        try {
+            String robotsTxt = HtmlParser.getRobotsTxt(hostUrl, configuration);
+            return RobotsTxtParser.getCrawlDelaySeconds(robotsTxt, configuration.getUserAgentName());
+        } finally {
+            connections.release();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package searchengine.crawler;
+
+import org.jsoup.nodes.Document;
+import searchengine.model.Page;
+import searchengine.model.Site;
+
+import java.util.List;
+
+public interface PipelineStages {
+    Page parse(String link, Document document, Site site);
+    AnalyzedPage analyze(Page page);
+    void persist(List<AnalyzedPage> pages, Site site);
+}
@@ -0,0 +1,256 @@
+package searchengine.crawler;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Component;
+import searchengine.config.PipelineConfiguration;
+import searchengine.config.PolitenessConfiguration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Планировщик загрузки страниц с учётом вежливости по отношению к каждому хосту.
+ * Для хоста хранится время, раньше которого нельзя отправлять следующий запрос;
+ * потоки загрузки берут из DelayQueue первый готовый хост, а не спят перед запросом.
+ * Задержка хоста не меньше Crawl-delay из robots.txt и увеличивается при ответах 429/5xx
+ * и росте времени ответа. Запросы к хосту стартуют не чаще, чем раз в delay, в любом режиме загрузки.
+ * Несколько соединений с хостом (max-host-connections, в режиме виртуальных потоков
+ * virtual-host-connections) лишь позволяют следующему запросу стартовать, пока предыдущий
+ * ещё не получил ответ; остальной выигрыш даёт одновременный обход разных хостов.
+ */
+@Component
+public class PolitenessScheduler {
+    private static final long NOT_READY_RETRY_MILLIS = 50;
+    private static final double LATENCY_GROWTH_FACTOR = 2.0;
+    private final PageFetcher pageFetcher;
+    private final PipelineConfiguration pipelineConfiguration;
+    private final PolitenessConfiguration configuration;
+    private final int hostConnections;
+    private final Logger logger = LogManager.getLogger("indexingServiceLogger");
+    private final DelayQueue<HostSlot> readyHosts = new DelayQueue<>();
+    private final ConcurrentHashMap<String, HostSlot> hosts = new ConcurrentHashMap<>();
+    private ExecutorService workers;
+    private ExecutorService virtualFetches;
+
+    public PolitenessScheduler(PageFetcher pageFetcher, PipelineConfiguration pipelineConfiguration,
+                               PolitenessConfiguration configuration) {
+        this.pageFetcher = pageFetcher;
+        this.pipelineConfiguration = pipelineConfiguration;
+        this.configuration = configuration;
+        this.hostConnections = Math.max(1, pipelineConfiguration.getFetchMode() == FetchMode.VIRTUAL
+                ? configuration.getVirtualHostConnections() : configuration.getMaxHostConnections());
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "fetch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        if (pipelineConfiguration.getFetchMode() == FetchMode.VIRTUAL) {
+            virtualFetches = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fetch-virtual-", 1).factory());
+            workers = Executors.newSingleThreadExecutor(factory);
+            workers.execute(() -> runWorkerLoop(slot -> virtualFetches.execute(() -> processHost(slot))));
+            return;
+        }
+        int threadsCount = pipelineConfiguration.getFetchThreads();
+        workers = Executors.newFixedThreadPool(threadsCount, factory);
+        for (int i = 0; i < threadsCount; i++) {
+            workers.execute(() -> runWorkerLoop(this::processHost));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        if (virtualFetches != null) {
+            virtualFetches.shutdownNow();
+        }
+    }
+
+    public void submit(String link, FetchCallback callback) {
+        String hostUrl;
+        try {
+            hostUrl = getHostUrl(link);
+        } catch (IllegalArgumentException e) {
+            callback.onFailed(link, e);
+            return;
+        }
+        HostSlot slot = hosts.computeIfAbsent(hostUrl, HostSlot::new);
+        if (slot.addTask(new FetchTask(link, callback))) {
+            readyHosts.offer(slot);
+        }
+    }
+
+    private String getHostUrl(String link) {
+        URI uri = URI.create(link);
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+
+    private void runWorkerLoop(Consumer<HostSlot> handler) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                handler.accept(readyHosts.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.error("Fetch scheduler error: " + e.getMessage());
+            }
+        }
+    }
+
+    private void processHost(HostSlot slot) {
+        loadCrawlDelay(slot);
+        FetchTask task = slot.startTask();
+        requeueIfReady(slot);
+        if (task == null) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        int statusCode = 200;
+        try {
+            Document document = pageFetcher.fetch(task.link());
+            task.callback().onFetched(task.link(), document, System.nanoTime() - startTime);
+        } catch (HttpStatusException e) {
+            statusCode = e.getStatusCode();
+            task.callback().onFailed(task.link(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.callback().onFailed(task.link(), e);
+        } catch (IOException | RuntimeException e) {
+            statusCode = 0;
+            task.callback().onFailed(task.link(), e);
+        } finally {
+            long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            slot.finishTask(latencyMillis, statusCode);
+            requeueIfReady(slot);
+        }
+    }
+
+    private void requeueIfReady(HostSlot slot) {
+        if (slot.markQueuedIfReady()) {
+            readyHosts.offer(slot);
+        }
+    }
+
+    private void loadCrawlDelay(HostSlot slot) {
+        if (!configuration.isRespectCrawlDelay() || !slot.crawlDelayLoaded.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            double crawlDelaySeconds = pageFetcher.getCrawlDelaySeconds(slot.hostUrl);
+            slot.setMinDelayMillis((long) (crawlDelaySeconds * 1000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error read robots.txt " + slot.hostUrl + ": " + e.getMessage());
+        }
+    }
+
+    private record FetchTask(String link, FetchCallback callback) {
+    }
+
+    private class HostSlot implements Delayed {
+        private final String hostUrl;
+        private final Queue<FetchTask> tasks = new ArrayDeque<>();
+        private final AtomicBoolean crawlDelayLoaded = new AtomicBoolean();
+        private long minDelayMillis = configuration.getDefaultDelayMillis();
+        private long delayMillis = minDelayMillis;
+        private long averageLatencyMillis;
+        private long nextAllowedNanos = System.nanoTime();
+        private long queuedUntilNanos;
+        private boolean queued;
+        private int inFlight;
+
+        private HostSlot(String hostUrl) {
+            this.hostUrl = hostUrl;
+        }
+
+        private synchronized void setMinDelayMillis(long crawlDelayMillis) {
+            minDelayMillis = Math.max(configuration.getDefaultDelayMillis(), crawlDelayMillis);
+            delayMillis = Math.max(delayMillis, minDelayMillis);
+        }
+
+        private synchronized boolean addTask(FetchTask task) {
+            tasks.add(task);
+            return markQueuedIfReady();
+        }
+
+        private synchronized FetchTask startTask() {
+            queued = false;
+            long now = System.nanoTime();
+            if (now < nextAllowedNanos) {
+                return null;
+            }
+            FetchTask task = tasks.peek();
+            while (task != null && !task.callback().isActive()) {
+                tasks.poll();
+                task = tasks.peek();
+            }
+            if (task == null) {
+                return null;
+            }
+            if (!task.callback().canAcceptPage()) {
+                nextAllowedNanos = now + TimeUnit.MILLISECONDS.toNanos(NOT_READY_RETRY_MILLIS);
+                return null;
+            }
+            tasks.poll();
+            inFlight++;
+            nextAllowedNanos = now + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            return task;
+        }
+
+        private synchronized void finishTask(long latencyMillis, int statusCode) {
+            inFlight--;
+            if (statusCode == 429 || statusCode == 503) {
+                delayMillis = Math.min(configuration.getMaxDelayMillis(), delayMillis * 2);
+            } else if (statusCode == 0 || statusCode >= 500) {
+                delayMillis = Math.min(configuration.getMaxDelayMillis(), delayMillis * 3 / 2);
+            } else if (averageLatencyMillis > 0 && latencyMillis > averageLatencyMillis * LATENCY_GROWTH_FACTOR) {
+                delayMillis = Math.min(configuration.getMaxDelayMillis(), delayMillis * 5 / 4);
+            } else {
+                delayMillis = Math.max(minDelayMillis, delayMillis * 9 / 10);
+            }
+            if (statusCode == 200) {
+                averageLatencyMillis = averageLatencyMillis == 0 ? latencyMillis
+                        : (averageLatencyMillis * 7 + latencyMillis) / 8;
+            }
+            long backoffUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+            if (statusCode != 200 && backoffUntil > nextAllowedNanos) {
+                nextAllowedNanos = backoffUntil;
+            }
+        }
+
+        private synchronized boolean markQueuedIfReady() {
+            if (queued || tasks.isEmpty() || inFlight >= hostConnections) {
+                return false;
+            }
+            queued = true;
+            queuedUntilNanos = nextAllowedNanos;
+            return true;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(queuedUntilNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(queuedUntilNanos, ((HostSlot) other).queuedUntilNanos);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package searchengine.crawler;
+
+/**
+ * Снимок хода обхода сайта на момент timeNanos. Скорость и перцентили за интервал
+ * получаются сравнением двух последовательных снимков одного конвейера (pipelineId).
+ */
+public record ProgressSnapshot(String siteUrl, String siteName, long pipelineId, boolean active, long timeNanos,
+                               long fetchedPages, long failedPages, long parsedPages, long persistedPages,
+                               int frontierSize, int pendingPages, int parseQueueSize, int analyzeQueueSize,
+                               int persistQueueSize, long[] fetchLatencyCounts, long[] flushTimeCounts) {
+}
@@ -0,0 +1,123 @@
+package searchengine.crawler;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Приведение адресов к одному виду для дедупликации: схема и хост в нижнем регистре, без www.,
+ * порта по умолчанию, фрагмента и завершающих слешей пути. Пробелы, не-ASCII символы и прочие
+ * недопустимые в URI символы перед разбором кодируются в %XX (UTF-8), как это делают браузеры.
+ */
+public class UrlCanonicalizer {
+    private static final String WWW_PREFIX = "www.";
+    private static final String ALLOWED_CHARACTERS = "-._~:/?#[]@!$&'()*+,;=";
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    public static String canonicalize(String url) {
+        URI uri;
+        try {
+            uri = new URI(encodeLeniently(url.trim()));
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        String scheme = uri.getScheme();
+        String host = uri.getHost();
+        if (scheme == null || host == null) {
+            return null;
+        }
+        scheme = scheme.toLowerCase(Locale.ROOT);
+        host = host.toLowerCase(Locale.ROOT);
+        if (host.startsWith(WWW_PREFIX)) {
+            host = host.substring(WWW_PREFIX.length());
+        }
+        StringBuilder builder = new StringBuilder(url.length());
+        builder.append(scheme).append("://").append(host);
+        int port = uri.getPort();
+        if (port != -1 && !isDefaultPort(scheme, port)) {
+            builder.append(':').append(port);
+        }
+        builder.append(getCanonicalPath(uri.getRawPath()));
+        if (uri.getRawQuery() != null) {
+            builder.append('?').append(uri.getRawQuery());
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Адрес сайта в каноническом виде без завершающего слеша, от которого отсчитываются пути страниц.
+     */
+    public static String canonicalizeSiteUrl(String siteUrl) {
+        String canonicalUrl = canonicalize(siteUrl);
+        if (canonicalUrl == null) {
+            return siteUrl;
+        }
+        return canonicalUrl.endsWith("/") ? canonicalUrl.substring(0, canonicalUrl.length() - 1) : canonicalUrl;
+    }
+
+    private static String encodeLeniently(String url) {
+        StringBuilder builder = null;
+        int index = 0;
+        while (index < url.length()) {
+            int codePoint = url.codePointAt(index);
+            int next = index + Character.charCount(codePoint);
+            if (isAllowed(codePoint) || (codePoint == '%' && isPercentEscape(url, index))) {
+                if (builder != null) {
+                    builder.appendCodePoint(codePoint);
+                }
+            } else {
+                if (builder == null) {
+                    builder = new StringBuilder(url.length() + 16).append(url, 0, index);
+                }
+                for (byte b : url.substring(index, next).getBytes(StandardCharsets.UTF_8)) {
+                    builder.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+                }
+            }
+            index = next;
+        }
+        return builder == null ? url : builder.toString();
+    }
+
+    private static boolean isAllowed(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || (c < 128 && ALLOWED_CHARACTERS.indexOf(c) >= 0);
+    }
+
+    private static boolean isPercentEscape(String url, int index) {
+        return index + 2 < url.length() && isHexDigit(url.charAt(index + 1)) && isHexDigit(url.charAt(index + 2));
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static boolean isDefaultPort(String scheme, int port) {
+        return (scheme.equals("http") && port == 80) || (scheme.equals("https") && port == 443);
+    }
+
+    private static String getCanonicalPath(String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        int end = path.length();
+        while (end > 1 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        return path.substring(0, end);
+    }
+
+    public static long fingerprint(String url) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < url.length(); i++) {
+            hash ^= url.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
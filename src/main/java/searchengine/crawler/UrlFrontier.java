@@ -0,0 +1,39 @@
+package searchengine.crawler;
+
+import searchengine.config.FrontierConfiguration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UrlFrontier {
+    private final FingerprintSet fingerprints;
+    private final BloomFilter bloomFilter;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public UrlFrontier(FrontierConfiguration configuration) {
+        if (configuration.isBloomFilter()) {
+            bloomFilter = new BloomFilter(configuration.getExpectedUrls(), configuration.getFalsePositiveRate());
+            fingerprints = null;
+        } else {
+            fingerprints = new FingerprintSet();
+            bloomFilter = null;
+        }
+    }
+
+    public String add(String url) {
+        String canonicalUrl = UrlCanonicalizer.canonicalize(url);
+        if (canonicalUrl == null) {
+            return null;
+        }
+        long fingerprint = UrlCanonicalizer.fingerprint(canonicalUrl);
+        boolean added = bloomFilter != null ? bloomFilter.add(fingerprint) : fingerprints.add(fingerprint);
+        if (!added) {
+            return null;
+        }
+        size.incrementAndGet();
+        return canonicalUrl;
+    }
+
+    public int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,26 @@
+package searchengine.dto.indexing;
+
+import lombok.Data;
+
+@Data
+public class SiteProgressItem {
+    private String url;
+    private String name;
+    private boolean active;
+    private long fetched;
+    private long failed;
+    private long parsed;
+    private long persisted;
+    private double pagesPerSecond;
+    private int frontierSize;
+    private int pendingPages;
+    private int parseQueue;
+    private int analyzeQueue;
+    private int persistQueue;
+    private double fetchLatencyP50;
+    private double fetchLatencyP95;
+    private double fetchLatencyP99;
+    private double flushTimeP50;
+    private double flushTimeP95;
+    private double flushTimeP99;
+}
@@ -8,11 +8,15 @@ public class SearchRequest {
     private String siteUrl;
     private int offset;
     private int limit;
+    private String cursor;
+    private Boolean fuzzy;
 
-    public SearchRequest(String query, String siteUrl, int offset, int limit) {
+    public SearchRequest(String query, String siteUrl, int offset, int limit, String cursor, Boolean fuzzy) {
         this.query = query;
         this.siteUrl = siteUrl;
         this.offset = offset;
         this.limit = limit;
+        this.cursor = cursor;
+        this.fuzzy = fuzzy;
     }
 }
@@ -11,6 +11,8 @@ public class SearchResponse {
     @JsonInclude(JsonInclude.Include.NON_NULL)
     private SearchData[] data;
     @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String cursor;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String error;
 
 }
@@ -5,7 +5,8 @@ import lombok.Data;
 @Data
 public class TotalStatistics {
     private int sites;
-    private int pages;
-    private int lemmas;
+    private long pages;
+    private long lemmas;
+    private long indexes;
     private boolean indexing;
 }
@@ -0,0 +1,15 @@
+package searchengine.dto.suggest;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SuggestResponse {
+    private boolean result;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<String> suggestions;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+}
@@ -5,7 +5,8 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
-@Table(name = "search_index")
+@Table(name = "search_index", indexes = @jakarta.persistence.Index(name = "idx_search_index_lemma_page",
+        columnList = "lemma_id, page_id, lemma_rank"))
 @Getter
 @Setter
 public class Index {
@@ -20,4 +21,6 @@ public class Index {
     private Lemma lemma;
     @Column(name = "lemma_rank", nullable = false)
     private float rank;
+    @Column(columnDefinition = "MEDIUMBLOB")
+    private byte[] positions;
 }
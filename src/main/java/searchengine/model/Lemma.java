@@ -7,6 +7,7 @@ import lombok.Setter;
 import java.util.Set;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_lemma_site_lemma", columnNames = {"site_id", "lemma"}))
 @Getter
 @Setter
 public class Lemma {
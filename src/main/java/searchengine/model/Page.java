@@ -3,6 +3,9 @@ package searchengine.model;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import searchengine.codec.ContentCodec;
+import searchengine.codec.ContentCodecs;
+
 import java.util.Set;
 
 @Entity
@@ -19,14 +22,35 @@ public class Page {
     @Column(columnDefinition = "TEXT NOT NULL, FULLTEXT KEY idx_page_path (path)")
     private String path;
     private int code;
-    @Column(columnDefinition = "MEDIUMTEXT CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci", nullable = false)
-    private String content;
+    @Column(name = "content_data", columnDefinition = "MEDIUMBLOB")
+    private byte[] contentData;
+    @Column(name = "content_codec")
+    private int contentCodec;
+    @Column(columnDefinition = "TEXT CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci")
+    private String title;
+    @Column(columnDefinition = "MEDIUMTEXT CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci")
+    private String text;
+    @Column(name = "token_count")
+    private int tokenCount;
+    @Column(name = "token_offsets", columnDefinition = "MEDIUMBLOB")
+    private byte[] tokenOffsets;
     @OneToMany(mappedBy = "page", cascade = CascadeType.ALL)
     private Set<Index> indexes;
     @Transient
-    private Set<String> childLinks;
-    @Transient
-    private float absoluteRelevance;
+    private String content;
     @Transient
-    private float relevance;
+    private Set<String> childLinks;
+
+    public String getContent() {
+        if (content == null && contentData != null) {
+            content = ContentCodecs.get(contentCodec).decode(contentData);
+        }
+        return content;
+    }
+
+    public void setContent(String content, ContentCodec codec) {
+        this.content = content;
+        this.contentData = content == null ? null : codec.encode(content);
+        this.contentCodec = codec.getId();
+    }
 }
@@ -18,6 +18,15 @@ public class HtmlParser {
                 .get();
     }
 
+    public static String getRobotsTxt(String siteUrl, SearchConfiguration bot) throws IOException {
+        Response response = Jsoup.connect(siteUrl + "/robots.txt")
+                .userAgent(bot.getUserAgentName())
+                .ignoreContentType(true)
+                .ignoreHttpErrors(true)
+                .execute();
+        return response.statusCode() == 200 ? response.body() : "";
+    }
+
     public static Document getDocumentByHTMLContent(String htmlContent) {
         return Jsoup.parse(htmlContent);
     }
@@ -45,6 +54,14 @@ public class HtmlParser {
         return document.html();
     }
 
+    public static String getTitle(Document document) {
+        return document.title();
+    }
+
+    public static String getText(Document document) {
+        return document.body() == null ? "" : document.body().text();
+    }
+
     public static Elements getHrefElements(Document document) {
         return document.getElementsByAttribute("href");
     }
@@ -0,0 +1,135 @@
+package searchengine.parsers;
+
+import java.util.Arrays;
+
+/**
+ * Переиспользуемый накопитель лемм страницы: открытая адресация по хешу строки леммы,
+ * позиции вхождений хранятся в общих массивах в виде односвязных списков.
+ * Для каждого слова текста запоминаются смещения его начала и конца.
+ */
+class LemmaAccumulator {
+    private static final int INITIAL_CAPACITY = 256;
+    private int[] slots = new int[INITIAL_CAPACITY * 2];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private String[] lemmas = new String[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+    private int[] firstOccurrences = new int[INITIAL_CAPACITY];
+    private int[] lastOccurrences = new int[INITIAL_CAPACITY];
+    private int entriesCount;
+    private int[] occurrencePositions = new int[INITIAL_CAPACITY * 4];
+    private int[] nextOccurrences = new int[INITIAL_CAPACITY * 4];
+    private int occurrencesCount;
+    private int[] tokenOffsets = new int[INITIAL_CAPACITY * 8];
+    private int tokensCount;
+    private char[] wordBuffer = new char[64];
+
+    void clear() {
+        Arrays.fill(slots, 0);
+        Arrays.fill(lemmas, 0, entriesCount, null);
+        entriesCount = 0;
+        occurrencesCount = 0;
+        tokensCount = 0;
+    }
+
+    char[] getWordBuffer(int length) {
+        if (wordBuffer.length < length) {
+            wordBuffer = new char[Math.max(length, wordBuffer.length * 2)];
+        }
+        return wordBuffer;
+    }
+
+    void addToken(int start, int end) {
+        if (tokensCount * 2 == tokenOffsets.length) {
+            tokenOffsets = Arrays.copyOf(tokenOffsets, tokenOffsets.length * 2);
+        }
+        tokenOffsets[tokensCount * 2] = start;
+        tokenOffsets[tokensCount * 2 + 1] = end;
+        tokensCount++;
+    }
+
+    void add(String lemma, int position) {
+        int entry = findOrCreateEntry(lemma);
+        if (occurrencesCount == occurrencePositions.length) {
+            occurrencePositions = Arrays.copyOf(occurrencePositions, occurrencesCount * 2);
+            nextOccurrences = Arrays.copyOf(nextOccurrences, occurrencesCount * 2);
+        }
+        int occurrence = occurrencesCount++;
+        occurrencePositions[occurrence] = position;
+        nextOccurrences[occurrence] = -1;
+        if (counts[entry] == 0) {
+            firstOccurrences[entry] = occurrence;
+        } else {
+            nextOccurrences[lastOccurrences[entry]] = occurrence;
+        }
+        lastOccurrences[entry] = occurrence;
+        counts[entry]++;
+    }
+
+    PageLemmas toPageLemmas() {
+        String[] resultLemmas = Arrays.copyOf(lemmas, entriesCount);
+        int[] resultCounts = Arrays.copyOf(counts, entriesCount);
+        int[][] resultPositions = new int[entriesCount][];
+        for (int entry = 0; entry < entriesCount; entry++) {
+            int[] positions = new int[counts[entry]];
+            int occurrence = firstOccurrences[entry];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = occurrencePositions[occurrence];
+                occurrence = nextOccurrences[occurrence];
+            }
+            resultPositions[entry] = positions;
+        }
+        return new PageLemmas(resultLemmas, resultCounts, resultPositions, tokensCount,
+                Arrays.copyOf(tokenOffsets, tokensCount * 2));
+    }
+
+    private int findOrCreateEntry(String lemma) {
+        int hash = lemma.hashCode();
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while (slots[slot] != 0) {
+            int entry = slots[slot] - 1;
+            if (hashes[entry] == hash && lemma.equals(lemmas[entry])) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (entriesCount == hashes.length) {
+            growEntries();
+        }
+        int entry = entriesCount++;
+        hashes[entry] = hash;
+        lemmas[entry] = lemma;
+        counts[entry] = 0;
+        slots[slot] = entry + 1;
+        if (entriesCount * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return entry;
+    }
+
+    private void growEntries() {
+        int capacity = hashes.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity);
+        lemmas = Arrays.copyOf(lemmas, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        firstOccurrences = Arrays.copyOf(firstOccurrences, capacity);
+        lastOccurrences = Arrays.copyOf(lastOccurrences, capacity);
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int entry = 0; entry < entriesCount; entry++) {
+            int slot = mix(hashes[entry]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = entry + 1;
+        }
+    }
+
+    private static int mix(int value) {
+        int hash = value * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
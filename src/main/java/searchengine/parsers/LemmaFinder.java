@@ -1,107 +1,111 @@
 package searchengine.parsers;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.apache.lucene.morphology.LuceneMorphology;
-import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
-import org.springframework.beans.factory.annotation.Autowired;
 
-import java.io.IOException;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
-@RequiredArgsConstructor
 public class LemmaFinder {
-    @Autowired
+    private static final Set<String> PARTICLE_TAGS = Set.of("ПРЕДЛ", "СОЮЗ", "МЕЖД");
+    private static final String PARTICLE = "";
     private final LuceneMorphology luceneMorphology;
-    private final String[] particlesNames = {"ПРЕДЛ", "СОЮЗ", "МЕЖД"};
+    private final Cache<String, String> wordFormsCache;
+    private final ThreadLocal<LemmaAccumulator> accumulators = ThreadLocal.withInitial(LemmaAccumulator::new);
 
-    public static LemmaFinder getInstance() throws IOException {
-        LuceneMorphology morphology = new RussianLuceneMorphology();
-        return new LemmaFinder(morphology);
+    public LemmaFinder(LuceneMorphology luceneMorphology, long cacheCapacity) {
+        this.luceneMorphology = luceneMorphology;
+        this.wordFormsCache = Caffeine.newBuilder()
+                .maximumSize(cacheCapacity)
+                .recordStats()
+                .build();
     }
 
-    public HashMap<String, Integer> getLemmasAndTheirFrequencies(String htmlContent) {
-        HashMap<String, Integer> lemmas = new HashMap<>();
-        String[] words = arrayOfRussianWords(htmlContent);
-        for (String word : words) {
-            String normalForm = getNormalFormOfWord(word);
-            if (normalForm.isBlank()) {
+    public PageLemmas getPageLemmas(String text) {
+        LemmaAccumulator accumulator = accumulators.get();
+        accumulator.clear();
+        int position = 0;
+        int length = text.length();
+        int index = 0;
+        while (index < length) {
+            if (!isRussianLetter(text.charAt(index))) {
+                index++;
                 continue;
             }
-            if (lemmas.containsKey(normalForm)) {
-                lemmas.put(normalForm, lemmas.get(normalForm) + 1);
-            } else {
-                lemmas.put(normalForm, 1);
+            int start = index;
+            while (index < length && isRussianLetter(text.charAt(index))) {
+                index++;
             }
-        }
-        return lemmas;
-    }
-
-    public Set<String> getLemmasFromWords(String text) {
-        Set<String> lemmas = new HashSet<>();
-        String[] words = arrayOfRussianWords(text);
-
-        for (String word : words) {
-            String normalForm = getNormalFormOfWord(word);
-            if (normalForm.isBlank()) {
-                continue;
+            char[] word = accumulator.getWordBuffer(index - start);
+            for (int i = start; i < index; i++) {
+                word[i - start] = toLowerCase(text.charAt(i));
+            }
+            accumulator.addToken(start, index);
+            String normalForm = getNormalForm(new String(word, 0, index - start));
+            if (!normalForm.isEmpty()) {
+                accumulator.add(normalForm, position);
             }
-            lemmas.add(normalForm);
+            position++;
         }
-        return lemmas;
+        return accumulator.toPageLemmas();
     }
 
-    public List<String> getLemmasListFromWordsList(List<String> words) {
-        List<String> lemmas = new ArrayList<>();
-        for (String word : words) {
-            Pattern pattern = Pattern.compile("[А-Яа-я]+");
-            Matcher matcher = pattern.matcher(word);
-            String wordLemma = "";
-            if (matcher.find()) {
-                wordLemma = getNormalFormOfWord(matcher.group());
-            }
-            lemmas.add(wordLemma);
-        }
-        return lemmas;
+    public Set<String> getLemmasFromWords(String text) {
+        return new HashSet<>(Arrays.asList(getPageLemmas(text).getLemmas()));
     }
 
     public String getNormalFormOfWord(String word) {
         word = word.replaceAll("\\s", "");
         word = word.toLowerCase(Locale.ROOT);
-        if (word.isBlank() || anyWordBaseBelongToParticle(word)) {
+        if (word.isBlank()) {
             return "";
         }
-        List<String> normalForms = luceneMorphology.getNormalForms(word);
-        return normalForms.get(0);
+        return getNormalForm(word);
     }
 
-    private String[] arrayOfRussianWords(String text) {
-        Set<String> russianWords = new HashSet<>();
-        Pattern pattern = Pattern.compile("[А-Яа-я]+");
-        Matcher matcher = pattern.matcher(text);
-        while (matcher.find()) {
-            russianWords.add(matcher.group());
-        }
-        if (russianWords.isEmpty()) {
-            return new String[0];
-        }
+    public CacheStats getCacheStats() {
+        return wordFormsCache.stats();
+    }
 
-        return russianWords.toArray(new String[russianWords.size()]);
+    public long getCacheSize() {
+        return wordFormsCache.estimatedSize();
     }
 
-    private boolean anyWordBaseBelongToParticle(String word) {
-        List<String> wordBaseForms = luceneMorphology.getMorphInfo(word);
-        return wordBaseForms.stream().anyMatch(this::isParticle);
+    private String getNormalForm(String word) {
+        return wordFormsCache.get(word, this::findNormalForm);
+    }
+
+    private String findNormalForm(String word) {
+        if (anyWordBaseBelongToParticle(word)) {
+            return PARTICLE;
+        }
+        return luceneMorphology.getNormalForms(word).get(0);
     }
 
-    private boolean isParticle(String word) {
-       for (String particleName : particlesNames) {
-            if (word.contains(particleName)) {
+    private boolean anyWordBaseBelongToParticle(String word) {
+        for (String morphInfo : luceneMorphology.getMorphInfo(word)) {
+            if (PARTICLE_TAGS.contains(getPartOfSpeechTag(morphInfo))) {
                 return true;
             }
         }
         return false;
     }
 
+    private static String getPartOfSpeechTag(String morphInfo) {
+        int tagStart = morphInfo.indexOf(' ', morphInfo.indexOf('|') + 1) + 1;
+        if (tagStart == 0) {
+            return "";
+        }
+        int tagEnd = morphInfo.indexOf(' ', tagStart);
+        return tagEnd < 0 ? morphInfo.substring(tagStart) : morphInfo.substring(tagStart, tagEnd);
+    }
+
+    private static boolean isRussianLetter(char c) {
+        return c >= 'А' && c <= 'я';
+    }
+
+    private static char toLowerCase(char c) {
+        return c <= 'Я' ? (char) (c + ('а' - 'А')) : c;
+    }
 }
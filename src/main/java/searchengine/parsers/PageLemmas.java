@@ -0,0 +1,18 @@
+package searchengine.parsers;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class PageLemmas {
+    private final String[] lemmas;
+    private final int[] counts;
+    private final int[][] positions;
+    private final int tokenCount;
+    private final int[] tokenOffsets;
+
+    public int size() {
+        return lemmas.length;
+    }
+}
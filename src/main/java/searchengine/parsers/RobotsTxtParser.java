@@ -0,0 +1,58 @@
+package searchengine.parsers;
+
+import java.util.Locale;
+
+public class RobotsTxtParser {
+
+    public static double getCrawlDelaySeconds(String robotsTxt, String userAgent) {
+        String agent = userAgent.toLowerCase(Locale.ROOT);
+        double specificDelay = -1;
+        double wildcardDelay = -1;
+        boolean specificGroup = false;
+        boolean wildcardGroup = false;
+        boolean readingAgents = false;
+        for (String line : robotsTxt.split("\\R")) {
+            int commentIndex = line.indexOf('#');
+            if (commentIndex >= 0) {
+                line = line.substring(0, commentIndex);
+            }
+            int separatorIndex = line.indexOf(':');
+            if (separatorIndex < 0) {
+                continue;
+            }
+            String key = line.substring(0, separatorIndex).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(separatorIndex + 1).trim();
+            if (key.equals("user-agent")) {
+                if (!readingAgents) {
+                    specificGroup = false;
+                    wildcardGroup = false;
+                }
+                readingAgents = true;
+                if (value.equals("*")) {
+                    wildcardGroup = true;
+                } else if (!value.isEmpty() && agent.contains(value.toLowerCase(Locale.ROOT))) {
+                    specificGroup = true;
+                }
+                continue;
+            }
+            readingAgents = false;
+            if (key.equals("crawl-delay")) {
+                double delay = parseDelay(value);
+                if (specificGroup) {
+                    specificDelay = delay;
+                } else if (wildcardGroup) {
+                    wildcardDelay = delay;
+                }
+            }
+        }
+        return Math.max(0, specificDelay >= 0 ? specificDelay : wildcardDelay);
+    }
+
+    private static double parseDelay(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package searchengine.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import searchengine.config.PipelineConfiguration;
+import searchengine.model.Page;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Пакетная запись строк page и search_index через JDBC в обход Hibernate.
+ * Для склейки пакета в многострочный INSERT в URL подключения
+ * должен быть указан rewriteBatchedStatements=true.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkInsertRepository {
+    private static final String INSERT_PAGE_SQL =
+            "INSERT INTO page (site_id, path, code, content_data, content_codec, title, text, token_count, "
+                    + "token_offsets) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_INDEX_SQL =
+            "INSERT INTO search_index (page_id, lemma_id, lemma_rank, positions) VALUES (?, ?, ?, ?)";
+    private final JdbcTemplate jdbcTemplate;
+    private final PipelineConfiguration configuration;
+    private final Logger logger = LogManager.getLogger("indexingServiceLogger");
+
+    public void insertPages(List<Page> pages) {
+        if (pages.isEmpty()) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_PAGE_SQL,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                int batchSize = configuration.getJdbcBatchSize();
+                for (int from = 0; from < pages.size(); from += batchSize) {
+                    List<Page> batch = pages.subList(from, Math.min(from + batchSize, pages.size()));
+                    for (Page page : batch) {
+                        statement.setInt(1, page.getSite().getId());
+                        statement.setString(2, page.getPath());
+                        statement.setInt(3, page.getCode());
+                        statement.setBytes(4, page.getContentData());
+                        statement.setInt(5, page.getContentCodec());
+                        statement.setString(6, page.getTitle());
+                        statement.setString(7, page.getText());
+                        statement.setInt(8, page.getTokenCount());
+                        statement.setBytes(9, page.getTokenOffsets());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    setGeneratedIds(statement, batch);
+                }
+            }
+            return null;
+        });
+        logThroughput("page", pages.size(), startTime);
+    }
+
+    private void setGeneratedIds(PreparedStatement statement, List<Page> pages) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            for (Page page : pages) {
+                if (!keys.next()) {
+                    break;
+                }
+                page.setId(keys.getInt(1));
+            }
+        }
+    }
+
+    public void insertIndexes(IndexRows rows) {
+        if (rows.size() == 0) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        int batchSize = configuration.getJdbcBatchSize();
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            int offset = from;
+            int count = Math.min(batchSize, rows.size() - from);
+            jdbcTemplate.batchUpdate(INSERT_INDEX_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement statement, int i) throws SQLException {
+                    int row = offset + i;
+                    statement.setInt(1, rows.getPageId(row));
+                    statement.setInt(2, rows.getLemmaId(row));
+                    statement.setFloat(3, rows.getRank(row));
+                    statement.setBytes(4, rows.getPositions(row));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return count;
+                }
+            });
+        }
+        logThroughput("search_index", rows.size(), startTime);
+    }
+
+    private void logThroughput(String table, int rowsCount, long startTime) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startTime);
+        long rowsPerSecond = rowsCount * 1_000_000_000L / elapsedNanos;
+        logger.info("Inserted " + rowsCount + " rows into " + table + " in "
+                + elapsedNanos / 1_000_000 + " ms (" + rowsPerSecond + " rows/s)");
+    }
+}
@@ -0,0 +1,69 @@
+package searchengine.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+/**
+ * Потоковое чтение таблиц lemma и search_index для построения индекса в памяти.
+ * Для search_index используется fetchSize = Integer.MIN_VALUE, при котором
+ * драйвер MySQL отдаёт строки по одной, не загружая всю выборку в память.
+ * Строки индекса идут в порядке idx_search_index_lemma_page, поэтому каждая страница
+ * дописывается в конец списка леммы без вставки в середину.
+ */
+@Repository
+public class IndexJdbcRepository {
+    private static final String SELECT_LEMMAS_SQL = "SELECT id, site_id, lemma FROM lemma";
+    private static final String SELECT_MAX_LEMMA_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM lemma";
+    private static final String SELECT_INDEX_ROWS_SQL = "SELECT i.page_id, i.lemma_id, i.lemma_rank, p.token_count, i.positions "
+            + "FROM search_index i JOIN page p ON p.id = i.page_id ORDER BY i.lemma_id, i.page_id";
+    private static final String SELECT_SITE_STATISTICS_SQL =
+            "SELECT site_id, COUNT(*), COALESCE(SUM(token_count), 0) FROM page GROUP BY site_id";
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public IndexJdbcRepository(DataSource dataSource) {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    public int findMaxLemmaId() {
+        Integer maxLemmaId = jdbcTemplate.queryForObject(SELECT_MAX_LEMMA_ID_SQL, Integer.class);
+        return maxLemmaId == null ? 0 : maxLemmaId;
+    }
+
+    public void forEachSiteStatistics(SiteStatisticsConsumer consumer) {
+        jdbcTemplate.query(SELECT_SITE_STATISTICS_SQL, resultSet -> {
+            consumer.accept(resultSet.getInt(1), resultSet.getInt(2), resultSet.getLong(3));
+        });
+    }
+
+    public void forEachLemma(LemmaRowConsumer consumer) {
+        streamingJdbcTemplate.query(SELECT_LEMMAS_SQL, resultSet -> {
+            consumer.accept(resultSet.getInt(1), resultSet.getInt(2), resultSet.getString(3));
+        });
+    }
+
+    public void forEachIndexRow(IndexRowConsumer consumer) {
+        streamingJdbcTemplate.query(SELECT_INDEX_ROWS_SQL, resultSet -> {
+            consumer.accept(resultSet.getInt(1), resultSet.getInt(2), resultSet.getFloat(3), resultSet.getInt(4),
+                    resultSet.getBytes(5));
+        });
+    }
+
+    @FunctionalInterface
+    public interface LemmaRowConsumer {
+        void accept(int lemmaId, int siteId, String lemma);
+    }
+
+    @FunctionalInterface
+    public interface IndexRowConsumer {
+        void accept(int pageId, int lemmaId, float rank, int pageLength, byte[] positions);
+    }
+
+    @FunctionalInterface
+    public interface SiteStatisticsConsumer {
+        void accept(int siteId, int pagesCount, long tokensCount);
+    }
+}
@@ -0,0 +1,54 @@
+package searchengine.repository;
+
+import java.util.Arrays;
+
+public class IndexRows {
+    private int[] pageIds;
+    private int[] lemmaIds;
+    private float[] ranks;
+    private byte[][] positions;
+    private int size;
+
+    public IndexRows(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        pageIds = new int[capacity];
+        lemmaIds = new int[capacity];
+        ranks = new float[capacity];
+        positions = new byte[capacity][];
+    }
+
+    public void add(int pageId, int lemmaId, float rank, byte[] rowPositions) {
+        if (size == pageIds.length) {
+            int capacity = size * 2;
+            pageIds = Arrays.copyOf(pageIds, capacity);
+            lemmaIds = Arrays.copyOf(lemmaIds, capacity);
+            ranks = Arrays.copyOf(ranks, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        pageIds[size] = pageId;
+        lemmaIds[size] = lemmaId;
+        ranks[size] = rank;
+        positions[size] = rowPositions;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getPageId(int row) {
+        return pageIds[row];
+    }
+
+    public int getLemmaId(int row) {
+        return lemmaIds[row];
+    }
+
+    public float getRank(int row) {
+        return ranks[row];
+    }
+
+    public byte[] getPositions(int row) {
+        return positions[row];
+    }
+}
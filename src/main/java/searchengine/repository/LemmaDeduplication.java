@@ -0,0 +1,81 @@
+package searchengine.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Слияние повторяющихся строк lemma с одинаковыми (site_id, lemma), которые прежняя запись
+ * создавала при параллельной индексации. Пока они есть, ddl-auto: update не может добавить
+ * уникальный ключ uk_lemma_site_lemma, поэтому слияние выполняется до создания EntityManagerFactory
+ * и только пока ключа нет: строки индекса переводятся на лемму с наименьшим id, частоты
+ * суммируются, лишние строки удаляются - всё в одной транзакции.
+ */
+@Component
+@RequiredArgsConstructor
+public class LemmaDeduplication {
+    private static final String LEMMA_TABLE_SQL = "SELECT COUNT(*) FROM information_schema.tables "
+            + "WHERE table_schema = DATABASE() AND table_name = 'lemma'";
+    private static final String UNIQUE_KEY_SQL = "SELECT COUNT(*) FROM information_schema.statistics "
+            + "WHERE table_schema = DATABASE() AND table_name = 'lemma' AND index_name = 'uk_lemma_site_lemma'";
+    private static final String DUPLICATES_SQL = "SELECT site_id, lemma, MIN(id) AS keep_id, SUM(frequency) AS total "
+            + "FROM lemma GROUP BY site_id, lemma HAVING COUNT(*) > 1";
+    private static final String COUNT_DUPLICATES_SQL = "SELECT COUNT(*) FROM (" + DUPLICATES_SQL + ") d";
+    private static final String MERGE_FREQUENCIES_SQL = "UPDATE lemma l JOIN (" + DUPLICATES_SQL + ") d "
+            + "ON l.id = d.keep_id SET l.frequency = d.total";
+    private static final String MOVE_INDEX_ROWS_SQL = "UPDATE search_index i JOIN lemma l ON l.id = i.lemma_id "
+            + "JOIN (" + DUPLICATES_SQL + ") d ON d.site_id = l.site_id AND d.lemma = l.lemma "
+            + "SET i.lemma_id = d.keep_id WHERE l.id <> d.keep_id";
+    private static final String DELETE_DUPLICATES_SQL = "DELETE l FROM lemma l JOIN (" + DUPLICATES_SQL + ") d "
+            + "ON d.site_id = l.site_id AND d.lemma = l.lemma WHERE l.id <> d.keep_id";
+    private final JdbcTemplate jdbcTemplate;
+    private final Logger logger = LogManager.getLogger("indexingServiceLogger");
+
+    @PostConstruct
+    public void run() {
+        if (count(LEMMA_TABLE_SQL) == 0 || count(UNIQUE_KEY_SQL) > 0) {
+            return;
+        }
+        int duplicatesCount = count(COUNT_DUPLICATES_SQL);
+        if (duplicatesCount == 0) {
+            return;
+        }
+        int deletedRows = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(MERGE_FREQUENCIES_SQL);
+                statement.executeUpdate(MOVE_INDEX_ROWS_SQL);
+                int deleted = statement.executeUpdate(DELETE_DUPLICATES_SQL);
+                connection.commit();
+                return deleted;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+        logger.info("Merged " + duplicatesCount + " duplicated lemmas, deleted " + deletedRows + " lemma rows");
+    }
+
+    private int count(String sql) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    @Component
+    static class JpaDependency extends EntityManagerFactoryDependsOnPostProcessor {
+        JpaDependency() {
+            super(LemmaDeduplication.class);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package searchengine.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import searchengine.config.PipelineConfiguration;
+
+import java.util.*;
+
+@Repository
+@RequiredArgsConstructor
+public class LemmaJdbcRepository {
+    private static final String INSERT_LEMMA_SQL = "INSERT INTO lemma (site_id, lemma, frequency) VALUES (?, ?, 0) "
+            + "ON DUPLICATE KEY UPDATE frequency = frequency";
+    private static final String ADD_FREQUENCY_SQL = "INSERT INTO lemma (site_id, lemma, frequency) VALUES (?, ?, ?) "
+            + "AS new ON DUPLICATE KEY UPDATE frequency = lemma.frequency + new.frequency";
+    private static final String SELECT_SITE_LEMMAS_SQL = "SELECT id, lemma FROM lemma WHERE site_id = ?";
+    private static final String SELECT_LEMMAS_SQL =
+            "SELECT id, lemma FROM lemma WHERE site_id = :siteId AND lemma IN (:lemmas)";
+    private static final String SELECT_UNUSED_LEMMAS_SQL = SELECT_LEMMAS_SQL + " AND frequency <= 0";
+    private static final String DELETE_UNUSED_LEMMAS_SQL = "DELETE FROM lemma WHERE id IN (:ids) AND frequency <= 0";
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final PipelineConfiguration configuration;
+
+    public void insertLemmas(int siteId, Collection<String> lemmas) {
+        jdbcTemplate.batchUpdate(INSERT_LEMMA_SQL, new ArrayList<>(lemmas), configuration.getJdbcBatchSize(),
+                (statement, lemma) -> {
+                    statement.setInt(1, siteId);
+                    statement.setString(2, lemma);
+                });
+    }
+
+    public void addFrequencies(int siteId, Map<String, Integer> frequencyDeltas) {
+        if (frequencyDeltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(ADD_FREQUENCY_SQL, new ArrayList<>(frequencyDeltas.entrySet()),
+                configuration.getJdbcBatchSize(), (statement, delta) -> {
+                    statement.setInt(1, siteId);
+                    statement.setString(2, delta.getKey());
+                    statement.setInt(3, delta.getValue());
+                });
+    }
+
+    public Map<String, Integer> findLemmaIds(int siteId) {
+        Map<String, Integer> lemmaIds = new HashMap<>();
+        jdbcTemplate.query(SELECT_SITE_LEMMAS_SQL,
+                resultSet -> {
+                    lemmaIds.put(resultSet.getString("lemma"), resultSet.getInt("id"));
+                }, siteId);
+        return lemmaIds;
+    }
+
+    public Set<String> deleteUnusedLemmas(int siteId, Collection<String> lemmas) {
+        if (lemmas.isEmpty()) {
+            return Set.of();
+        }
+        Map<String, Integer> lemmaIds = new HashMap<>();
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("siteId", siteId)
+                .addValue("lemmas", new ArrayList<>(lemmas));
+        namedParameterJdbcTemplate.query(SELECT_UNUSED_LEMMAS_SQL, parameters,
+                resultSet -> {
+                    lemmaIds.put(resultSet.getString("lemma"), resultSet.getInt("id"));
+                });
+        if (!lemmaIds.isEmpty()) {
+            namedParameterJdbcTemplate.update(DELETE_UNUSED_LEMMAS_SQL,
+                    new MapSqlParameterSource("ids", new ArrayList<>(lemmaIds.values())));
+        }
+        return lemmaIds.keySet();
+    }
+
+    public Map<String, Integer> findLemmaIds(int siteId, Collection<String> lemmas) {
+        Map<String, Integer> lemmaIds = new HashMap<>();
+        List<String> lemmaList = new ArrayList<>(lemmas);
+        int batchSize = configuration.getJdbcBatchSize();
+        for (int from = 0; from < lemmaList.size(); from += batchSize) {
+            MapSqlParameterSource parameters = new MapSqlParameterSource()
+                    .addValue("siteId", siteId)
+                    .addValue("lemmas", lemmaList.subList(from, Math.min(from + batchSize, lemmaList.size())));
+            namedParameterJdbcTemplate.query(SELECT_LEMMAS_SQL, parameters,
+                    resultSet -> {
+                        lemmaIds.put(resultSet.getString("lemma"), resultSet.getInt("id"));
+                    });
+        }
+        return lemmaIds;
+    }
+}
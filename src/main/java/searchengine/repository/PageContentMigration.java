@@ -0,0 +1,113 @@
+package searchengine.repository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.jsoup.nodes.Document;
+import searchengine.codec.ContentCodec;
+import searchengine.codec.VarIntCodec;
+import searchengine.config.StorageConfiguration;
+import searchengine.parsers.HtmlParser;
+import searchengine.parsers.LemmaFinder;
+import searchengine.parsers.PageLemmas;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Перенос HTML страниц из старой колонки page.content в content_data.
+ * Строки кодируются текущим кодеком пачками по migration-batch-size,
+ * после переноса всех строк старая колонка удаляется. Заодно из HTML заполняются
+ * колонки, которых у старых строк нет: заголовок, текст, число и смещения слов страницы,
+ * а также позиции лемм в search_index (только пустые), чтобы старые страницы
+ * не разбирались заново при каждом показе и получали сниппеты по позициям.
+ * Выполняется при создании контекста после обновления схемы JPA (entityManagerFactory),
+ * то есть до запуска веб-сервера, поэтому запросы не застают таблицу в процессе переноса.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class PageContentMigration {
+    private static final String LEGACY_COLUMN_SQL = "SELECT COUNT(*) FROM information_schema.columns "
+            + "WHERE table_schema = DATABASE() AND table_name = 'page' AND column_name = 'content'";
+    private static final String RELAX_LEGACY_COLUMN_SQL = "ALTER TABLE page MODIFY content MEDIUMTEXT NULL";
+    private static final String SELECT_LEGACY_ROWS_SQL =
+            "SELECT id, content FROM page WHERE content_data IS NULL AND content IS NOT NULL LIMIT ?";
+    private static final String UPDATE_ROW_SQL = "UPDATE page SET content_data = ?, content_codec = ?, content = NULL, "
+            + "title = ?, text = ?, token_count = ?, token_offsets = ? WHERE id = ?";
+    private static final String UPDATE_POSITIONS_SQL = "UPDATE search_index i JOIN lemma l ON l.id = i.lemma_id "
+            + "SET i.positions = ? WHERE i.page_id = ? AND l.lemma = ? AND i.positions IS NULL";
+    private static final String DROP_LEGACY_COLUMN_SQL = "ALTER TABLE page DROP COLUMN content";
+    private final JdbcTemplate jdbcTemplate;
+    private final StorageConfiguration configuration;
+    private final ContentCodec codec;
+    private final LemmaFinder lemmaFinder;
+    private final Logger logger = LogManager.getLogger("indexingServiceLogger");
+
+    @PostConstruct
+    public void run() {
+        Integer legacyColumns = jdbcTemplate.queryForObject(LEGACY_COLUMN_SQL, Integer.class);
+        if (legacyColumns == null || legacyColumns == 0) {
+            return;
+        }
+        jdbcTemplate.execute(RELAX_LEGACY_COLUMN_SQL);
+        long startTime = System.nanoTime();
+        long rowsCount = 0;
+        long sourceBytes = 0;
+        long storedBytes = 0;
+        List<MigratedRow> rows = selectLegacyRows();
+        while (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_ROW_SQL, rows, rows.size(), (statement, row) -> {
+                statement.setBytes(1, row.contentData());
+                statement.setInt(2, codec.getId());
+                statement.setString(3, row.title());
+                statement.setString(4, row.text());
+                statement.setInt(5, row.lemmas().getTokenCount());
+                statement.setBytes(6, VarIntCodec.encodeDeltas(row.lemmas().getTokenOffsets()));
+                statement.setInt(7, row.id());
+            });
+            updatePositions(rows);
+            for (MigratedRow row : rows) {
+                sourceBytes += row.sourceBytes();
+                storedBytes += row.contentData().length;
+            }
+            rowsCount += rows.size();
+            rows = selectLegacyRows();
+        }
+        jdbcTemplate.execute(DROP_LEGACY_COLUMN_SQL);
+        logger.info("Migrated " + rowsCount + " pages to codec " + codec.getName() + " in "
+                + (System.nanoTime() - startTime) / 1_000_000 + " ms: " + sourceBytes + " -> " + storedBytes + " bytes");
+    }
+
+    private void updatePositions(List<MigratedRow> rows) {
+        List<Object[]> positions = new ArrayList<>();
+        for (MigratedRow row : rows) {
+            PageLemmas pageLemmas = row.lemmas();
+            for (int i = 0; i < pageLemmas.size(); i++) {
+                positions.add(new Object[]{VarIntCodec.encodeDeltas(pageLemmas.getPositions()[i]), row.id(),
+                        pageLemmas.getLemmas()[i]});
+            }
+        }
+        jdbcTemplate.batchUpdate(UPDATE_POSITIONS_SQL, positions);
+    }
+
+    private List<MigratedRow> selectLegacyRows() {
+        return jdbcTemplate.query(SELECT_LEGACY_ROWS_SQL, (resultSet, rowNumber) -> {
+            String content = resultSet.getString("content");
+            Document document = HtmlParser.getDocumentByHTMLContent(content);
+            String text = HtmlParser.getText(document);
+            return new MigratedRow(resultSet.getInt("id"), codec.encode(content),
+                    content.getBytes(StandardCharsets.UTF_8).length, HtmlParser.getTitle(document), text,
+                    lemmaFinder.getPageLemmas(text));
+        }, configuration.getMigrationBatchSize());
+    }
+
+    private record MigratedRow(int id, byte[] contentData, int sourceBytes, String title, String text,
+                               PageLemmas lemmas) {
+    }
+}
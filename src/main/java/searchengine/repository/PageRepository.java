@@ -13,8 +13,6 @@ import java.util.Optional;
 public interface PageRepository extends CrudRepository<Page, Integer> {
     Optional<Page> findByPathAndSite(String path, Site site);
 
-    long count();
-    int countBySite(Site site);
     @Query("select p.path from Page p where p.path in ?1 and p.site = ?2")
     List<String> findPathByPathInAndSite(List<String> uriList, Site site);
 }
@@ -0,0 +1,112 @@
+package searchengine.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import searchengine.codec.VarIntCodec;
+import searchengine.config.SearchConfiguration;
+import searchengine.search.ScoringMode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Поиск страниц одним запросом к search_index с теми же правилами, что и в индексе в памяти:
+ * сайт учитывается, только если на нём есть все леммы запроса; в запросе из нескольких лемм
+ * леммы, встречающиеся более чем на 90% страниц сайта, не участвуют в отборе; страница должна
+ * содержать все оставшиеся леммы своего сайта. Оценка - сумма рангов лемм или BM25
+ * по статистике сайта (число страниц, средняя длина, частота леммы) в зависимости от scoring.
+ * Наружу возвращаются только пары (page_id, оценка) запрошенной части выдачи.
+ * Позиции лемм для сниппета читаются из search_index.positions найденной страницы.
+ */
+@Repository
+public class SearchJdbcRepository {
+    private static final int FREQUENCY_OCCURRENCE_MAX_PERCENT = 90;
+    private static final String MATCHING_PAGES_SQL = "WITH site_stats AS ("
+            + "SELECT site_id, COUNT(*) AS pages_count, COALESCE(SUM(token_count), 0) AS tokens_count "
+            + "FROM page WHERE site_id IN (:siteIds) GROUP BY site_id), "
+            + "site_lemmas AS ("
+            + "SELECT l.id, l.site_id, l.frequency, s.pages_count, s.tokens_count, "
+            + "COUNT(*) OVER (PARTITION BY l.site_id) AS found_count "
+            + "FROM lemma l JOIN site_stats s ON s.site_id = l.site_id "
+            + "WHERE l.site_id IN (:siteIds) AND l.lemma IN (:lemmas)), "
+            + "query_lemmas AS ("
+            + "SELECT id, frequency, pages_count, tokens_count, COUNT(*) OVER (PARTITION BY site_id) AS required_count "
+            + "FROM site_lemmas WHERE found_count = :lemmasCount AND (:lemmasCount = 1 "
+            + "OR frequency * 100 DIV GREATEST(1, pages_count) <= " + FREQUENCY_OCCURRENCE_MAX_PERCENT + ")), "
+            + "matches AS ("
+            + "SELECT i.page_id, %s AS score "
+            + "FROM search_index i JOIN query_lemmas q ON q.id = i.lemma_id JOIN page p ON p.id = i.page_id "
+            + "GROUP BY i.page_id, q.required_count HAVING COUNT(*) = q.required_count) ";
+    private static final String RANK_SUM_SQL = "SUM(i.lemma_rank)";
+    private static final String BM25_SQL = "SUM(LN(1 + (GREATEST(q.pages_count, q.frequency) - q.frequency + 0.5) "
+            + "/ (q.frequency + 0.5)) * (:k1 + 1) * i.lemma_rank / (i.lemma_rank + :k1 * (1 - :b) "
+            + "+ :k1 * :b * p.token_count / GREATEST(1, q.tokens_count / GREATEST(1, q.pages_count))))";
+    private static final String SELECT_TOP_PAGES_SQL = "SELECT page_id, score, COUNT(*) OVER () AS matches_count, "
+            + "MAX(score) OVER () AS max_score FROM matches ORDER BY score DESC, page_id LIMIT :limit OFFSET :offset";
+    private static final String COUNT_PAGES_SQL = "SELECT COUNT(*) FROM matches";
+    private static final String SELECT_POSITIONS_SQL = "SELECT l.lemma, i.positions FROM search_index i "
+            + "JOIN lemma l ON l.id = i.lemma_id WHERE i.page_id = :pageId AND l.lemma IN (:lemmas)";
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final SearchConfiguration configuration;
+    private final String selectTopPagesSql;
+    private final String countPagesSql;
+
+    public SearchJdbcRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                                SearchConfiguration configuration) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.configuration = configuration;
+        String matchingPagesSql = MATCHING_PAGES_SQL.formatted(
+                configuration.getScoring() == ScoringMode.BM25 ? BM25_SQL : RANK_SUM_SQL);
+        selectTopPagesSql = matchingPagesSql + SELECT_TOP_PAGES_SQL;
+        countPagesSql = matchingPagesSql + COUNT_PAGES_SQL;
+    }
+
+    public void forEachTopPage(Collection<Integer> siteIds, Collection<String> lemmas, int offset, int limit,
+                               ScoredPageConsumer consumer) {
+        MapSqlParameterSource parameters = getParameters(siteIds, lemmas)
+                .addValue("offset", offset)
+                .addValue("limit", limit);
+        namedParameterJdbcTemplate.query(selectTopPagesSql, parameters, resultSet -> {
+            consumer.accept(resultSet.getInt(1), resultSet.getFloat(2), resultSet.getInt(3), resultSet.getFloat(4));
+        });
+    }
+
+    public int countPages(Collection<Integer> siteIds, Collection<String> lemmas) {
+        Integer count = namedParameterJdbcTemplate.queryForObject(countPagesSql, getParameters(siteIds, lemmas),
+                Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    public int[][] findPositions(int pageId, List<String> lemmas) {
+        int[][] positions = new int[lemmas.size()][0];
+        if (lemmas.isEmpty()) {
+            return positions;
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("pageId", pageId)
+                .addValue("lemmas", new ArrayList<>(lemmas));
+        namedParameterJdbcTemplate.query(SELECT_POSITIONS_SQL, parameters, resultSet -> {
+            int index = lemmas.indexOf(resultSet.getString(1));
+            if (index >= 0) {
+                positions[index] = VarIntCodec.decodeDeltas(resultSet.getBytes(2));
+            }
+        });
+        return positions;
+    }
+
+    private MapSqlParameterSource getParameters(Collection<Integer> siteIds, Collection<String> lemmas) {
+        return new MapSqlParameterSource()
+                .addValue("siteIds", new ArrayList<>(siteIds))
+                .addValue("lemmas", new ArrayList<>(lemmas))
+                .addValue("lemmasCount", lemmas.size())
+                .addValue("k1", configuration.getBm25K1())
+                .addValue("b", configuration.getBm25B());
+    }
+
+    @FunctionalInterface
+    public interface ScoredPageConsumer {
+        void accept(int pageId, float score, int matchesCount, float maxScore);
+    }
+}
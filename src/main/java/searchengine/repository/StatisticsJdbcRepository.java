@@ -0,0 +1,43 @@
+package searchengine.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Полный пересчёт числа строк page, lemma и search_index по сайтам группировкой.
+ * Запросы тяжёлые на больших таблицах, поэтому используются только для начальной загрузки
+ * и периодической сверки счётчиков в памяти.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StatisticsJdbcRepository {
+    private static final String COUNT_PAGES_SQL = "SELECT site_id, COUNT(*) FROM page GROUP BY site_id";
+    private static final String COUNT_LEMMAS_SQL = "SELECT site_id, COUNT(*) FROM lemma GROUP BY site_id";
+    private static final String COUNT_INDEXES_SQL = "SELECT p.site_id, COUNT(*) FROM search_index i "
+            + "JOIN page p ON p.id = i.page_id GROUP BY p.site_id";
+    private final JdbcTemplate jdbcTemplate;
+
+    public Map<Integer, Long> countPagesBySite() {
+        return countBySite(COUNT_PAGES_SQL);
+    }
+
+    public Map<Integer, Long> countLemmasBySite() {
+        return countBySite(COUNT_LEMMAS_SQL);
+    }
+
+    public Map<Integer, Long> countIndexesBySite() {
+        return countBySite(COUNT_INDEXES_SQL);
+    }
+
+    private Map<Integer, Long> countBySite(String sql) {
+        Map<Integer, Long> counts = new HashMap<>();
+        jdbcTemplate.query(sql, resultSet -> {
+            counts.put(resultSet.getInt(1), resultSet.getLong(2));
+        });
+        return counts;
+    }
+}
@@ -0,0 +1,27 @@
+package searchengine.search;
+
+/**
+ * Okapi BM25: частота леммы на странице насыщается параметром k1 и нормируется
+ * на длину страницы относительно средней по сайту (параметр b),
+ * редкие леммы получают больший вес через idf.
+ */
+public class Bm25Scorer implements RelevanceScorer {
+    private final double k1;
+    private final double b;
+
+    public Bm25Scorer(double k1, double b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    @Override
+    public TermScorer getTermScorer(int documentFrequency, SiteStatistics statistics) {
+        int pagesCount = Math.max(statistics.pagesCount(), documentFrequency);
+        double idf = Math.log(1 + (pagesCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        double averagePageLength = Math.max(1, statistics.getAveragePageLength());
+        float weight = (float) (idf * (k1 + 1));
+        float lengthBase = (float) (k1 * (1 - b));
+        float lengthFactor = (float) (k1 * b / averagePageLength);
+        return (rank, pageLength) -> weight * rank / (rank + lengthBase + lengthFactor * pageLength);
+    }
+}
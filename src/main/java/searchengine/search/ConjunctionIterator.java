@@ -0,0 +1,83 @@
+package searchengine.search;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Пересечение итераторов: самый дешёвый итератор предлагает страницу,
+ * остальные догоняют её галопирующим переходом.
+ */
+class ConjunctionIterator implements PageIterator {
+    private final PageIterator[] iterators;
+    private final float maxScore;
+    private int pageId = -1;
+
+    ConjunctionIterator(List<? extends PageIterator> iterators) {
+        this.iterators = iterators.stream()
+                .sorted(Comparator.comparingLong(PageIterator::getCost))
+                .toArray(PageIterator[]::new);
+        float scoreBound = 0;
+        for (PageIterator iterator : this.iterators) {
+            scoreBound += iterator.getMaxScore();
+        }
+        maxScore = scoreBound;
+    }
+
+    @Override
+    public int pageId() {
+        return pageId;
+    }
+
+    @Override
+    public int advance(int target) {
+        if (target <= pageId) {
+            return pageId;
+        }
+        int candidate = iterators[0].advance(target);
+        while (candidate != NO_MORE_PAGES) {
+            int aligned = align(candidate);
+            if (aligned == candidate) {
+                if (matchesCurrent()) {
+                    break;
+                }
+                aligned = candidate + 1;
+            }
+            candidate = iterators[0].advance(aligned);
+        }
+        pageId = candidate;
+        return pageId;
+    }
+
+    @Override
+    public float score() {
+        float score = 0;
+        for (PageIterator iterator : iterators) {
+            score += iterator.score();
+        }
+        return score;
+    }
+
+    @Override
+    public float getMaxScore() {
+        return maxScore;
+    }
+
+    @Override
+    public long getCost() {
+        return iterators[0].getCost();
+    }
+
+    protected boolean matchesCurrent() {
+        return true;
+    }
+
+    private int align(int candidate) {
+        for (int i = 1; i < iterators.length; i++) {
+            int pageId = iterators[i].advance(candidate);
+            if (pageId != candidate) {
+                return pageId;
+            }
+        }
+        return candidate;
+    }
+}
@@ -0,0 +1,62 @@
+package searchengine.search;
+
+import java.util.List;
+
+class DisjunctionIterator implements PageIterator {
+    private final PageIterator[] iterators;
+    private final float maxScore;
+    private final long cost;
+    private int pageId = -1;
+
+    DisjunctionIterator(List<PageIterator> iterators) {
+        this.iterators = iterators.toArray(new PageIterator[0]);
+        float scoreBound = 0;
+        long costSum = 0;
+        for (PageIterator iterator : this.iterators) {
+            scoreBound += iterator.getMaxScore();
+            costSum += iterator.getCost();
+        }
+        maxScore = scoreBound;
+        cost = costSum;
+    }
+
+    @Override
+    public int pageId() {
+        return pageId;
+    }
+
+    @Override
+    public int advance(int target) {
+        if (target <= pageId) {
+            return pageId;
+        }
+        int candidate = NO_MORE_PAGES;
+        for (PageIterator iterator : iterators) {
+            int iteratorPageId = iterator.pageId() < target ? iterator.advance(target) : iterator.pageId();
+            candidate = Math.min(candidate, iteratorPageId);
+        }
+        pageId = candidate;
+        return pageId;
+    }
+
+    @Override
+    public float score() {
+        float score = 0;
+        for (PageIterator iterator : iterators) {
+            if (iterator.pageId() == pageId) {
+                score += iterator.score();
+            }
+        }
+        return score;
+    }
+
+    @Override
+    public float getMaxScore() {
+        return maxScore;
+    }
+
+    @Override
+    public long getCost() {
+        return cost;
+    }
+}
@@ -0,0 +1,48 @@
+package searchengine.search;
+
+/**
+ * Страницы обязательной части запроса, на которых нет ни одной исключённой.
+ */
+class ExclusionIterator implements PageIterator {
+    private final PageIterator required;
+    private final PageIterator excluded;
+    private int pageId = -1;
+
+    ExclusionIterator(PageIterator required, PageIterator excluded) {
+        this.required = required;
+        this.excluded = excluded;
+    }
+
+    @Override
+    public int pageId() {
+        return pageId;
+    }
+
+    @Override
+    public int advance(int target) {
+        if (target <= pageId) {
+            return pageId;
+        }
+        int candidate = required.advance(target);
+        while (candidate != NO_MORE_PAGES && excluded.advance(candidate) == candidate) {
+            candidate = required.advance(candidate + 1);
+        }
+        pageId = candidate;
+        return pageId;
+    }
+
+    @Override
+    public float score() {
+        return required.score();
+    }
+
+    @Override
+    public float getMaxScore() {
+        return required.getMaxScore();
+    }
+
+    @Override
+    public long getCost() {
+        return required.getCost();
+    }
+}
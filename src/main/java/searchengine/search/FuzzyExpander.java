@@ -0,0 +1,71 @@
+package searchengine.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Нечёткое расширение запроса для одного сайта: каждая лемма, которой нет в словаре сайта,
+ * заменяется условием ИЛИ по ближайшим леммам словаря. Допустимое расстояние зависит
+ * от длины слова: слова короче трёх букв не расширяются, до пяти букв допускается одна правка.
+ * Леммы под отрицанием и внутри фраз не расширяются.
+ */
+public class FuzzyExpander {
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final int SINGLE_EDIT_MAX_LENGTH = 5;
+
+    private FuzzyExpander() {
+    }
+
+    public static SearchQuery expand(SearchQuery query, SuggestionIndex vocabulary, int maxDistance,
+                                     int maxExpansions) {
+        QueryNode root = query.toQueryNode();
+        QueryNode expandedRoot = expandNode(root, vocabulary, maxDistance, maxExpansions);
+        return expandedRoot.equals(root) ? query : SearchQuery.of(expandedRoot);
+    }
+
+    private static QueryNode expandNode(QueryNode node, SuggestionIndex vocabulary, int maxDistance,
+                                        int maxExpansions) {
+        return switch (node) {
+            case QueryNode.Term term -> expandTerm(term, vocabulary, maxDistance, maxExpansions);
+            case QueryNode.And and -> new QueryNode.And(expandNodes(and.children(), vocabulary, maxDistance, maxExpansions));
+            case QueryNode.Or or -> new QueryNode.Or(expandNodes(or.children(), vocabulary, maxDistance, maxExpansions));
+            case QueryNode.Phrase phrase -> phrase;
+            case QueryNode.Not not -> not;
+        };
+    }
+
+    private static List<QueryNode> expandNodes(List<QueryNode> nodes, SuggestionIndex vocabulary, int maxDistance,
+                                               int maxExpansions) {
+        List<QueryNode> expandedNodes = new ArrayList<>(nodes.size());
+        for (QueryNode node : nodes) {
+            expandedNodes.add(expandNode(node, vocabulary, maxDistance, maxExpansions));
+        }
+        return expandedNodes;
+    }
+
+    private static QueryNode expandTerm(QueryNode.Term term, SuggestionIndex vocabulary, int maxDistance,
+                                        int maxExpansions) {
+        String lemma = term.lemma();
+        int distance = getAllowedDistance(lemma, maxDistance);
+        if (distance == 0 || vocabulary.contains(lemma)) {
+            return term;
+        }
+        List<String> similarLemmas = vocabulary.findSimilar(lemma, distance, maxExpansions);
+        if (similarLemmas.isEmpty()) {
+            return term;
+        }
+        if (similarLemmas.size() == 1) {
+            return new QueryNode.Term(similarLemmas.get(0));
+        }
+        List<QueryNode> terms = new ArrayList<>(similarLemmas.size());
+        similarLemmas.forEach(similarLemma -> terms.add(new QueryNode.Term(similarLemma)));
+        return new QueryNode.Or(terms);
+    }
+
+    private static int getAllowedDistance(String lemma, int maxDistance) {
+        if (lemma.length() < MIN_WORD_LENGTH) {
+            return 0;
+        }
+        return Math.min(maxDistance, lemma.length() <= SINGLE_EDIT_MAX_LENGTH ? 1 : 2);
+    }
+}
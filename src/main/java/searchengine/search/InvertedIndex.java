@@ -0,0 +1,90 @@
+package searchengine.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfiguration;
+import searchengine.parsers.PageLemmas;
+import searchengine.repository.IndexJdbcRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Инвертированный индекс всех сайтов в памяти. Строится из search_index при старте
+ * приложения и обновляется сервисом индексации при добавлении и удалении страниц,
+ * поэтому поиск обращается к БД только за страницами, попавшими в выдачу.
+ * Загружается после переноса старых страниц, который заполняет их позиции и длины.
+ */
+@Component
+@DependsOn("pageContentMigration")
+@RequiredArgsConstructor
+public class InvertedIndex {
+    private final IndexJdbcRepository indexJdbcRepository;
+    private final SearchConfiguration configuration;
+    private final Map<Integer, SiteIndex> sites = new ConcurrentHashMap<>();
+    private final Logger logger = LogManager.getLogger("indexingServiceLogger");
+    private RelevanceScorer scorer;
+
+    @PostConstruct
+    public void load() {
+        scorer = createScorer();
+        long startTime = System.nanoTime();
+        indexJdbcRepository.forEachSiteStatistics((siteId, pagesCount, tokensCount) ->
+                getSiteIndex(siteId).setStatistics(pagesCount, tokensCount));
+        PostingList[] postingsByLemmaId = new PostingList[indexJdbcRepository.findMaxLemmaId() + 1];
+        indexJdbcRepository.forEachLemma((lemmaId, siteId, lemma) ->
+                postingsByLemmaId[lemmaId] = getSiteIndex(siteId).getOrCreatePostings(lemma));
+        AtomicLong rowsCount = new AtomicLong();
+        indexJdbcRepository.forEachIndexRow((pageId, lemmaId, rank, pageLength, positions) -> {
+            if (lemmaId < postingsByLemmaId.length && postingsByLemmaId[lemmaId] != null) {
+                postingsByLemmaId[lemmaId].add(pageId, rank, pageLength, positions);
+                rowsCount.incrementAndGet();
+            }
+        });
+        logger.info("Inverted index loaded: " + rowsCount.get() + " postings in "
+                + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+    }
+
+    public SiteIndex getSiteIndex(int siteId) {
+        return sites.computeIfAbsent(siteId, id -> new SiteIndex());
+    }
+
+    public void addPage(int siteId, int pageId, PageLemmas pageLemmas) {
+        getSiteIndex(siteId).addPage(pageId, pageLemmas);
+    }
+
+    public void removePage(int siteId, int pageId, Collection<String> lemmas) {
+        getSiteIndex(siteId).removePage(pageId, lemmas);
+    }
+
+    public int[][] getPositions(int siteId, int pageId, List<String> lemmas) {
+        SiteIndex siteIndex = sites.get(siteId);
+        return siteIndex == null ? new int[lemmas.size()][0] : siteIndex.getPositions(pageId, lemmas);
+    }
+
+    public void removeSite(int siteId) {
+        sites.remove(siteId);
+    }
+
+    public RankedPages matchTop(int siteId, SearchQuery query, int count, SearchCursor after) {
+        SiteIndex siteIndex = sites.get(siteId);
+        if (siteIndex == null) {
+            return new RankedPages(new ScoredPages(0), 0, 0);
+        }
+        return siteIndex.matchTop(query, scorer, count, after, configuration.getExactCountThreshold());
+    }
+
+    private RelevanceScorer createScorer() {
+        if (configuration.getScoring() == ScoringMode.BM25) {
+            return new Bm25Scorer(configuration.getBm25K1(), configuration.getBm25B());
+        }
+        return new RankSumScorer();
+    }
+}
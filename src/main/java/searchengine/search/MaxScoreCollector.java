@@ -0,0 +1,75 @@
+package searchengine.search;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Отбор лучших страниц для ИЛИ нескольких условий с динамическим отсечением MaxScore.
+ * Условия упорядочиваются по верхней границе оценки; когда куча лучших страниц заполнена,
+ * условия, сумма границ которых не превышает худшей оценки в куче, перестают предлагать
+ * страницы и только досчитывают оценку кандидатов от остальных условий.
+ * Отсечение включается после exactCountThreshold найденных страниц: до этого число
+ * найденных страниц точное, после - нижняя граница.
+ */
+class MaxScoreCollector {
+    private MaxScoreCollector() {
+    }
+
+    static int collect(List<PageIterator> clauses, TopKSelector selector, SearchCursor after,
+                       int exactCountThreshold) {
+        PageIterator[] iterators = clauses.stream()
+                .sorted(Comparator.comparingDouble(PageIterator::getMaxScore))
+                .toArray(PageIterator[]::new);
+        float[] scoreBounds = new float[iterators.length];
+        float scoreBound = 0;
+        for (int i = 0; i < iterators.length; i++) {
+            scoreBound += iterators[i].getMaxScore();
+            scoreBounds[i] = scoreBound;
+            iterators[i].next();
+        }
+        int firstEssential = 0;
+        float threshold = Float.NEGATIVE_INFINITY;
+        int matchesCount = 0;
+        while (true) {
+            int pageId = findNextPage(iterators, firstEssential);
+            if (pageId == PageIterator.NO_MORE_PAGES) {
+                return matchesCount;
+            }
+            matchesCount++;
+            float score = 0;
+            for (int i = firstEssential; i < iterators.length; i++) {
+                if (iterators[i].pageId() == pageId) {
+                    score += iterators[i].score();
+                    iterators[i].next();
+                }
+            }
+            boolean competitive = true;
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (score + scoreBounds[i] < threshold) {
+                    competitive = false;
+                    break;
+                }
+                if (iterators[i].advance(pageId) == pageId) {
+                    score += iterators[i].score();
+                }
+            }
+            if (competitive && (after == null || after.isFollowedBy(pageId, score))) {
+                selector.offer(pageId, score);
+            }
+            if (matchesCount >= exactCountThreshold && selector.isFull()) {
+                threshold = selector.getMinScore();
+                while (firstEssential < iterators.length && scoreBounds[firstEssential] < threshold) {
+                    firstEssential++;
+                }
+            }
+        }
+    }
+
+    private static int findNextPage(PageIterator[] iterators, int firstEssential) {
+        int pageId = PageIterator.NO_MORE_PAGES;
+        for (int i = firstEssential; i < iterators.length; i++) {
+            pageId = Math.min(pageId, iterators[i].pageId());
+        }
+        return pageId;
+    }
+}
@@ -0,0 +1,25 @@
+package searchengine.search;
+
+/**
+ * Итератор по возрастающим id страниц, подходящих под часть запроса.
+ * До первого перехода pageId() возвращает -1, после последней страницы - NO_MORE_PAGES.
+ * Стоимость - оценка числа страниц, которые итератор может выдать, по ней планировщик
+ * упорядочивает операнды; maxScore - верхняя граница оценки страницы для отсечения.
+ */
+interface PageIterator {
+    int NO_MORE_PAGES = Integer.MAX_VALUE;
+
+    int pageId();
+
+    int advance(int target);
+
+    default int next() {
+        return advance(pageId() + 1);
+    }
+
+    float score();
+
+    float getMaxScore();
+
+    long getCost();
+}
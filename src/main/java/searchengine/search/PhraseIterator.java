@@ -0,0 +1,28 @@
+package searchengine.search;
+
+import searchengine.codec.VarIntCodec;
+
+import java.util.List;
+
+/**
+ * Страницы, содержащие все леммы фразы, с проверкой взаимного расположения слов.
+ */
+class PhraseIterator extends ConjunctionIterator {
+    private final TermIterator[] words;
+    private final PhraseQuery phrase;
+
+    PhraseIterator(List<TermIterator> lemmas, TermIterator[] words, PhraseQuery phrase) {
+        super(lemmas);
+        this.words = words;
+        this.phrase = phrase;
+    }
+
+    @Override
+    protected boolean matchesCurrent() {
+        int[][] positions = new int[words.length][];
+        for (int i = 0; i < words.length; i++) {
+            positions[i] = VarIntCodec.decodeDeltas(words[i].getPositions());
+        }
+        return PhraseMatcher.matches(positions, phrase);
+    }
+}
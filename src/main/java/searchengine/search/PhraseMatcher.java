@@ -0,0 +1,61 @@
+package searchengine.search;
+
+import java.util.Arrays;
+
+/**
+ * Проверка фразы по позициям её лемм на странице.
+ * Точная фраза: для каждой позиции первой леммы остальные леммы стоят на нужных смещениях.
+ * Фраза с допуском ~N: леммы стоят в порядке фразы на строго возрастающих (а значит, различных
+ * для повторяющихся лемм) позициях, и весь отрезок длиннее фразы не более чем на N слов.
+ * Для каждой позиции первой леммы следующие берутся жадно - ближайшие после предыдущей,
+ * что даёт самый короткий упорядоченный отрезок с этим началом.
+ */
+public class PhraseMatcher {
+    public static boolean matches(int[][] positions, PhraseQuery phrase) {
+        for (int[] lemmaPositions : positions) {
+            if (lemmaPositions.length == 0) {
+                return false;
+            }
+        }
+        if (phrase.getSlop() == 0) {
+            return matchesExactly(positions, phrase.getOffsets());
+        }
+        return getSmallestOrderedSpan(positions) <= phrase.getSpan() + phrase.getSlop();
+    }
+
+    private static boolean matchesExactly(int[][] positions, int[] offsets) {
+        for (int position : positions[0]) {
+            boolean matched = true;
+            for (int i = 1; i < positions.length && matched; i++) {
+                matched = Arrays.binarySearch(positions[i], position + offsets[i]) >= 0;
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int getSmallestOrderedSpan(int[][] positions) {
+        int smallestSpan = Integer.MAX_VALUE;
+        for (int start : positions[0]) {
+            int previous = start;
+            for (int i = 1; i < positions.length && previous != Integer.MAX_VALUE; i++) {
+                previous = findNextPosition(positions[i], previous);
+            }
+            if (previous == Integer.MAX_VALUE) {
+                return smallestSpan;
+            }
+            smallestSpan = Math.min(smallestSpan, previous - start);
+        }
+        return smallestSpan;
+    }
+
+    private static int findNextPosition(int[] lemmaPositions, int after) {
+        int index = Arrays.binarySearch(lemmaPositions, after + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < lemmaPositions.length ? lemmaPositions[index] : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,24 @@
+package searchengine.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Фраза запроса: леммы в порядке слов, смещения слов относительно первого слова фразы
+ * и допустимое число лишних слов между ними (0 - точная фраза).
+ */
+@Getter
+@RequiredArgsConstructor
+public class PhraseQuery {
+    private final String[] lemmas;
+    private final int[] offsets;
+    private final int slop;
+
+    public int getSpan() {
+        return offsets[offsets.length - 1];
+    }
+
+    public String getNormalizedForm() {
+        return "\"" + String.join(" ", lemmas) + "\"~" + slop;
+    }
+}
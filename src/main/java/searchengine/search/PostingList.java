@@ -0,0 +1,146 @@
+package searchengine.search;
+
+import java.util.Arrays;
+
+/**
+ * Список страниц одной леммы: возрастающие id страниц, ранги леммы на них
+ * длины страниц в леммах и сжатые позиции леммы на странице в параллельных массивах.
+ * Наибольший ранг и наименьшая длина страницы дают верхнюю границу оценки по лемме;
+ * при удалении страниц они не пересчитываются и остаются верной, хотя и менее точной границей.
+ */
+public class PostingList {
+    private int[] pageIds = new int[4];
+    private float[] ranks = new float[4];
+    private int[] pageLengths = new int[4];
+    private byte[][] positions = new byte[4][];
+    private int size;
+    private float maxRank;
+    private int minPageLength = Integer.MAX_VALUE;
+
+    public int size() {
+        return size;
+    }
+
+    public int getPageId(int index) {
+        return pageIds[index];
+    }
+
+    public float getRank(int index) {
+        return ranks[index];
+    }
+
+    public int getPageLength(int index) {
+        return pageLengths[index];
+    }
+
+    public byte[] getPositions(int index) {
+        return positions[index];
+    }
+
+    public float getMaxRank() {
+        return maxRank;
+    }
+
+    public int getMinPageLength() {
+        return minPageLength;
+    }
+
+    /**
+     * Галопирующий поиск: первая позиция не раньше from, где id страницы не меньше pageId.
+     * Шаг удваивается до перелёта, затем бинарный поиск в последнем интервале,
+     * поэтому пропуск k элементов стоит O(log k) сравнений.
+     */
+    public int advance(int from, int pageId) {
+        if (from >= size || pageIds[from] >= pageId) {
+            return from;
+        }
+        int low = from;
+        int step = 1;
+        int high = from + step;
+        while (high < size && pageIds[high] < pageId) {
+            low = high;
+            step <<= 1;
+            high = from + step;
+        }
+        high = Math.min(high, size);
+        low++;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (pageIds[middle] < pageId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    void add(int pageId, float rank, int pageLength, byte[] pagePositions) {
+        maxRank = Math.max(maxRank, rank);
+        minPageLength = Math.min(minPageLength, pageLength);
+        if (size > 0 && pageIds[size - 1] >= pageId) {
+            insert(pageId, rank, pageLength, pagePositions);
+            return;
+        }
+        ensureCapacity();
+        pageIds[size] = pageId;
+        ranks[size] = rank;
+        pageLengths[size] = pageLength;
+        positions[size] = pagePositions;
+        size++;
+    }
+
+    int findPageLength(int pageId) {
+        int index = Arrays.binarySearch(pageIds, 0, size, pageId);
+        return index < 0 ? -1 : pageLengths[index];
+    }
+
+    byte[] findPositions(int pageId) {
+        int index = Arrays.binarySearch(pageIds, 0, size, pageId);
+        return index < 0 ? null : positions[index];
+    }
+
+    boolean remove(int pageId) {
+        int index = Arrays.binarySearch(pageIds, 0, size, pageId);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(pageIds, index + 1, pageIds, index, size - index - 1);
+        System.arraycopy(ranks, index + 1, ranks, index, size - index - 1);
+        System.arraycopy(pageLengths, index + 1, pageLengths, index, size - index - 1);
+        System.arraycopy(positions, index + 1, positions, index, size - index - 1);
+        size--;
+        positions[size] = null;
+        return true;
+    }
+
+    private void insert(int pageId, float rank, int pageLength, byte[] pagePositions) {
+        int index = Arrays.binarySearch(pageIds, 0, size, pageId);
+        if (index >= 0) {
+            ranks[index] = rank;
+            pageLengths[index] = pageLength;
+            positions[index] = pagePositions;
+            return;
+        }
+        index = -index - 1;
+        ensureCapacity();
+        System.arraycopy(pageIds, index, pageIds, index + 1, size - index);
+        System.arraycopy(ranks, index, ranks, index + 1, size - index);
+        System.arraycopy(pageLengths, index, pageLengths, index + 1, size - index);
+        System.arraycopy(positions, index, positions, index + 1, size - index);
+        pageIds[index] = pageId;
+        ranks[index] = rank;
+        pageLengths[index] = pageLength;
+        positions[index] = pagePositions;
+        size++;
+    }
+
+    private void ensureCapacity() {
+        if (size == pageIds.length) {
+            pageIds = Arrays.copyOf(pageIds, size * 2);
+            ranks = Arrays.copyOf(ranks, size * 2);
+            pageLengths = Arrays.copyOf(pageLengths, size * 2);
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package searchengine.search;
+
+import java.util.List;
+
+/**
+ * Узел дерева булевого запроса. Потомки узлов И и ИЛИ хранятся в порядке,
+ * не влияющем на результат, поэтому нормализованная форма строится по отсортированным потомкам.
+ */
+public sealed interface QueryNode {
+    String getNormalizedForm();
+
+    record Term(String lemma) implements QueryNode {
+        @Override
+        public String getNormalizedForm() {
+            return lemma;
+        }
+    }
+
+    record Phrase(PhraseQuery phrase) implements QueryNode {
+        @Override
+        public String getNormalizedForm() {
+            return phrase.getNormalizedForm();
+        }
+    }
+
+    record And(List<QueryNode> children) implements QueryNode {
+        @Override
+        public String getNormalizedForm() {
+            return "(" + String.join(" AND ", children.stream().map(QueryNode::getNormalizedForm).sorted().toList()) + ")";
+        }
+    }
+
+    record Or(List<QueryNode> children) implements QueryNode {
+        @Override
+        public String getNormalizedForm() {
+            return "(" + String.join(" OR ", children.stream().map(QueryNode::getNormalizedForm).sorted().toList()) + ")";
+        }
+    }
+
+    record Not(QueryNode child) implements QueryNode {
+        @Override
+        public String getNormalizedForm() {
+            return "NOT " + child.getNormalizedForm();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package searchengine.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import searchengine.parsers.LemmaFinder;
+import searchengine.parsers.PageLemmas;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Разбор строки запроса: текст в кавычках - фраза, "..."~N - фраза с допуском в N слов,
+ * остальные слова - отдельные леммы. Условия объединяются по И, а также операторами
+ * OR (ИЛИ, |), NOT (НЕ, - перед словом) и скобками. Запрос без ИЛИ и НЕ остаётся
+ * простым списком лемм и фраз, для остальных строится дерево условий.
+ * Словесные операторы распознаются только в верхнем регистре: строчные "не", "и", "или"
+ * остаются обычными словами запроса. Запрос, в котором весь запрос или одна из ветвей ИЛИ
+ * состоит только из отрицаний, отклоняется: выполнить его можно лишь перебором всех страниц сайта.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryParser {
+    private static final Pattern PHRASE_PATTERN = Pattern.compile("\"([^\"]*)\"(?:~(\\d+))?");
+    private static final Set<String> OR_OPERATORS = Set.of("OR", "ИЛИ", "|");
+    private static final Set<String> AND_OPERATORS = Set.of("AND", "И", "&");
+    private static final Set<String> NOT_OPERATORS = Set.of("NOT", "НЕ", "-");
+    private final LemmaFinder lemmaFinder;
+
+    public SearchQuery parse(String query) {
+        QueryNode root = new Parser(tokenize(query)).parseQuery();
+        if (root != null && !hasPositivePart(root)) {
+            throw new IllegalArgumentException("Query branch consists only of negations: " + root.getNormalizedForm());
+        }
+        SearchQuery searchQuery = SearchQuery.of(root);
+        return isConjunction(root) ? new SearchQuery(searchQuery.getTerms(), searchQuery.getPhrases()) : searchQuery;
+    }
+
+    private List<String> tokenize(String query) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = PHRASE_PATTERN.matcher(query);
+        int index = 0;
+        while (index < query.length()) {
+            char c = query.charAt(index);
+            if (c == '(' || c == ')' || c == '|' || c == '&') {
+                tokens.add(String.valueOf(c));
+                index++;
+            } else if (c == '"' && matcher.region(index, query.length()).lookingAt()) {
+                tokens.add(matcher.group());
+                index = matcher.end();
+            } else if (c == '-' && index + 1 < query.length() && isNegationTarget(query.charAt(index + 1))) {
+                tokens.add("-");
+                index++;
+            } else if (c == '-' || isDelimiter(c)) {
+                index++;
+            } else {
+                int start = index;
+                while (index < query.length() && !isDelimiter(query.charAt(index))) {
+                    index++;
+                }
+                tokens.add(query.substring(start, index));
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isNegationTarget(char c) {
+        return !Character.isWhitespace(c) && c != ')' && c != '|' && c != '&' && c != '-';
+    }
+
+    private static boolean isDelimiter(char c) {
+        return Character.isWhitespace(c) || c == '(' || c == ')' || c == '|' || c == '&' || c == '"';
+    }
+
+    private QueryNode getOperandNode(String token) {
+        if (token.startsWith("\"")) {
+            Matcher matcher = PHRASE_PATTERN.matcher(token);
+            if (!matcher.matches()) {
+                return null;
+            }
+            int slop = matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2));
+            PhraseQuery phrase = getPhraseQuery(matcher.group(1), slop);
+            if (phrase == null) {
+                return null;
+            }
+            return phrase.getLemmas().length == 1 ? new QueryNode.Term(phrase.getLemmas()[0]) : new QueryNode.Phrase(phrase);
+        }
+        List<QueryNode> terms = new ArrayList<>();
+        for (String lemma : lemmaFinder.getLemmasFromWords(token)) {
+            terms.add(new QueryNode.Term(lemma));
+        }
+        return combine(terms, QueryNode.And::new);
+    }
+
+    private static QueryNode combine(List<QueryNode> nodes, Function<List<QueryNode>, QueryNode> operator) {
+        if (nodes.isEmpty()) {
+            return null;
+        }
+        return nodes.size() == 1 ? nodes.get(0) : operator.apply(nodes);
+    }
+
+    private static boolean hasPositivePart(QueryNode node) {
+        return switch (node) {
+            case QueryNode.Term term -> true;
+            case QueryNode.Phrase phrase -> true;
+            case QueryNode.And and -> and.children().stream().anyMatch(child -> !(child instanceof QueryNode.Not))
+                    && and.children().stream().allMatch(child -> child instanceof QueryNode.Not || hasPositivePart(child));
+            case QueryNode.Or or -> or.children().stream().allMatch(QueryParser::hasPositivePart);
+            case QueryNode.Not not -> false;
+        };
+    }
+
+    private static boolean isConjunction(QueryNode node) {
+        if (node instanceof QueryNode.And and) {
+            return and.children().stream().allMatch(QueryParser::isConjunction);
+        }
+        return node == null || node instanceof QueryNode.Term || node instanceof QueryNode.Phrase;
+    }
+
+    private PhraseQuery getPhraseQuery(String text, int slop) {
+        PageLemmas pageLemmas = lemmaFinder.getPageLemmas(text);
+        List<int[]> words = new ArrayList<>();
+        for (int i = 0; i < pageLemmas.size(); i++) {
+            for (int position : pageLemmas.getPositions()[i]) {
+                words.add(new int[]{position, i});
+            }
+        }
+        if (words.isEmpty()) {
+            return null;
+        }
+        words.sort(Comparator.comparingInt(word -> word[0]));
+        String[] lemmas = new String[words.size()];
+        int[] offsets = new int[words.size()];
+        int firstPosition = words.get(0)[0];
+        for (int i = 0; i < lemmas.length; i++) {
+            lemmas[i] = pageLemmas.getLemmas()[words.get(i)[1]];
+            offsets[i] = words.get(i)[0] - firstPosition;
+        }
+        return new PhraseQuery(lemmas, offsets, slop);
+    }
+
+    /**
+     * Рекурсивный спуск: ИЛИ связывает слабее И, НЕ относится к ближайшему операнду.
+     * Непарные скобки и операторы без операндов пропускаются, а условия без лемм
+     * (служебные слова, латиница) выпадают из запроса.
+     */
+    private class Parser {
+        private final List<String> tokens;
+        private int position;
+
+        private Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        private QueryNode parseQuery() {
+            List<QueryNode> nodes = new ArrayList<>();
+            while (position < tokens.size()) {
+                if (tokens.get(position).equals(")")) {
+                    position++;
+                    continue;
+                }
+                addNode(nodes, parseOr(), QueryNode.And.class);
+            }
+            return combine(nodes, QueryNode.And::new);
+        }
+
+        private QueryNode parseOr() {
+            List<QueryNode> nodes = new ArrayList<>();
+            addNode(nodes, parseAnd(), QueryNode.Or.class);
+            while (position < tokens.size() && OR_OPERATORS.contains(tokens.get(position))) {
+                position++;
+                addNode(nodes, parseAnd(), QueryNode.Or.class);
+            }
+            return combine(nodes, QueryNode.Or::new);
+        }
+
+        private QueryNode parseAnd() {
+            List<QueryNode> nodes = new ArrayList<>();
+            while (position < tokens.size() && !isOperandEnd(tokens.get(position))) {
+                if (AND_OPERATORS.contains(tokens.get(position))) {
+                    position++;
+                    continue;
+                }
+                addNode(nodes, parseUnary(), QueryNode.And.class);
+            }
+            return combine(nodes, QueryNode.And::new);
+        }
+
+        private QueryNode parseUnary() {
+            String token = tokens.get(position++);
+            if (NOT_OPERATORS.contains(token)) {
+                if (position >= tokens.size() || isOperandEnd(tokens.get(position))) {
+                    return null;
+                }
+                QueryNode child = parseUnary();
+                return child == null ? null : new QueryNode.Not(child);
+            }
+            if (token.equals("(")) {
+                QueryNode node = parseOr();
+                if (position < tokens.size() && tokens.get(position).equals(")")) {
+                    position++;
+                }
+                return node;
+            }
+            return getOperandNode(token);
+        }
+
+        private boolean isOperandEnd(String token) {
+            return token.equals(")") || OR_OPERATORS.contains(token);
+        }
+
+        private void addNode(List<QueryNode> nodes, QueryNode node, Class<? extends QueryNode> operator) {
+            if (node == null || nodes.contains(node)) {
+                return;
+            }
+            if (operator == QueryNode.And.class && node instanceof QueryNode.And and) {
+                nodes.addAll(and.children());
+            } else if (operator == QueryNode.Or.class && node instanceof QueryNode.Or or) {
+                nodes.addAll(or.children());
+            } else {
+                nodes.add(node);
+            }
+        }
+    }
+}
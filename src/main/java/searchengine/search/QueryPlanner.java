@@ -0,0 +1,103 @@
+package searchengine.search;
+
+import java.util.*;
+
+/**
+ * Построение дерева итераторов для булевого запроса по спискам страниц одного сайта.
+ * Операнды И упорядочиваются по стоимости, так что пересечение ведёт самый короткий список,
+ * исключения проверяются только для страниц, прошедших пересечение. Отсутствующая на сайте
+ * лемма обнуляет содержащее её И и просто выпадает из ИЛИ. Отрицание без положительной
+ * части запроса не выполняется, так как потребовало бы перебора всех страниц сайта.
+ */
+class QueryPlanner {
+    private final Map<String, PostingList> postings;
+    private final RelevanceScorer scorer;
+    private final SiteStatistics statistics;
+
+    QueryPlanner(Map<String, PostingList> postings, RelevanceScorer scorer, SiteStatistics statistics) {
+        this.postings = postings;
+        this.scorer = scorer;
+        this.statistics = statistics;
+    }
+
+    PageIterator plan(QueryNode node) {
+        return switch (node) {
+            case QueryNode.Term term -> planTerm(term.lemma());
+            case QueryNode.Phrase phrase -> planPhrase(phrase.phrase());
+            case QueryNode.And and -> planAnd(and.children());
+            case QueryNode.Or or -> planOr(or.children());
+            case QueryNode.Not not -> null;
+        };
+    }
+
+    List<PageIterator> planClauses(List<QueryNode> nodes) {
+        List<PageIterator> clauses = new ArrayList<>();
+        for (QueryNode node : nodes) {
+            PageIterator clause = plan(node);
+            if (clause != null) {
+                clauses.add(clause);
+            }
+        }
+        return clauses;
+    }
+
+    private TermIterator planTerm(String lemma) {
+        PostingList postingList = postings.get(lemma);
+        if (postingList == null) {
+            return null;
+        }
+        return new TermIterator(postingList, scorer.getTermScorer(postingList.size(), statistics));
+    }
+
+    private PageIterator planPhrase(PhraseQuery phrase) {
+        Map<String, TermIterator> lemmas = new LinkedHashMap<>();
+        TermIterator[] words = new TermIterator[phrase.getLemmas().length];
+        for (int i = 0; i < words.length; i++) {
+            String lemma = phrase.getLemmas()[i];
+            if (!lemmas.containsKey(lemma)) {
+                TermIterator iterator = planTerm(lemma);
+                if (iterator == null) {
+                    return null;
+                }
+                lemmas.put(lemma, iterator);
+            }
+            words[i] = lemmas.get(lemma);
+        }
+        return new PhraseIterator(new ArrayList<>(lemmas.values()), words, phrase);
+    }
+
+    private PageIterator planAnd(List<QueryNode> children) {
+        List<PageIterator> required = new ArrayList<>();
+        List<PageIterator> excluded = new ArrayList<>();
+        for (QueryNode child : children) {
+            if (child instanceof QueryNode.Not not) {
+                PageIterator iterator = plan(not.child());
+                if (iterator != null) {
+                    excluded.add(iterator);
+                }
+                continue;
+            }
+            PageIterator iterator = plan(child);
+            if (iterator == null) {
+                return null;
+            }
+            required.add(iterator);
+        }
+        if (required.isEmpty()) {
+            return null;
+        }
+        PageIterator iterator = required.size() == 1 ? required.get(0) : new ConjunctionIterator(required);
+        if (excluded.isEmpty()) {
+            return iterator;
+        }
+        return new ExclusionIterator(iterator, excluded.size() == 1 ? excluded.get(0) : new DisjunctionIterator(excluded));
+    }
+
+    private PageIterator planOr(List<QueryNode> children) {
+        List<PageIterator> clauses = planClauses(children);
+        if (clauses.isEmpty()) {
+            return null;
+        }
+        return clauses.size() == 1 ? clauses.get(0) : new DisjunctionIterator(clauses);
+    }
+}
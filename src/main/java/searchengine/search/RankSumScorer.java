@@ -0,0 +1,8 @@
+package searchengine.search;
+
+public class RankSumScorer implements RelevanceScorer {
+    @Override
+    public TermScorer getTermScorer(int documentFrequency, SiteStatistics statistics) {
+        return (rank, pageLength) -> rank;
+    }
+}
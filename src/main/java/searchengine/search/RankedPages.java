@@ -0,0 +1,8 @@
+package searchengine.search;
+
+/**
+ * Страницы запрошенной части выдачи по убыванию оценки, общее число найденных страниц
+ * и наибольшая оценка среди них, относительно которой считается релевантность.
+ */
+public record RankedPages(ScoredPages pages, int matchesCount, float maxScore) {
+}
@@ -0,0 +1,15 @@
+package searchengine.search;
+
+/**
+ * Оценка релевантности страницы по одной лемме запроса. Для каждой леммы запроса
+ * один раз создаётся {@link TermScorer} с её статистикой по сайту, после чего
+ * оценка каждой страницы считается без выделения памяти.
+ */
+public interface RelevanceScorer {
+    TermScorer getTermScorer(int documentFrequency, SiteStatistics statistics);
+
+    @FunctionalInterface
+    interface TermScorer {
+        float score(float rank, int pageLength);
+    }
+}
@@ -0,0 +1,51 @@
+package searchengine.search;
+
+import java.util.Arrays;
+
+public class ScoredPages {
+    private int[] pageIds;
+    private float[] scores;
+    private int size;
+
+    public ScoredPages(int initialCapacity) {
+        int capacity = Math.max(8, initialCapacity);
+        pageIds = new int[capacity];
+        scores = new float[capacity];
+    }
+
+    public void add(int pageId, float score) {
+        if (size == pageIds.length) {
+            pageIds = Arrays.copyOf(pageIds, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        pageIds[size] = pageId;
+        scores[size] = score;
+        size++;
+    }
+
+    public void addAll(ScoredPages other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.pageIds[i], other.scores[i]);
+        }
+    }
+
+    public ScoredPages subList(int from, int to) {
+        ScoredPages pages = new ScoredPages(to - from);
+        for (int i = from; i < to; i++) {
+            pages.add(pageIds[i], scores[i]);
+        }
+        return pages;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getPageId(int index) {
+        return pageIds[index];
+    }
+
+    public float getScore(int index) {
+        return scores[index];
+    }
+}
@@ -0,0 +1,6 @@
+package searchengine.search;
+
+public enum ScoringMode {
+    RANK_SUM,
+    BM25
+}
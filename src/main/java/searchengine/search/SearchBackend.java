@@ -0,0 +1,12 @@
+package searchengine.search;
+
+/**
+ * Источник выдачи. MEMORY - индекс в памяти. SQL - запрос из отдельных лемм целиком обслуживается
+ * MySQL: отбор и ранжирование, следующие части выдачи (курсор продолжает тот же ORDER BY
+ * с позиции последней отданной страницы) и позиции лемм для сниппетов. Фразы, запросы с ИЛИ/НЕ
+ * и нечёткий поиск выполняются по индексу в памяти, поэтому он загружается и в режиме SQL.
+ */
+public enum SearchBackend {
+    MEMORY,
+    SQL
+}
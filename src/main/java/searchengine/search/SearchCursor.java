@@ -0,0 +1,54 @@
+package searchengine.search;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Курсор продолжения выдачи: отпечаток запроса и сайта, оценка и id последней
+ * отданной страницы, число уже отданных страниц и наибольшая оценка выдачи.
+ * Передаётся клиенту непрозрачной строкой Base64, следующая часть выдачи
+ * начинается со страниц, стоящих в порядке выдачи после последней отданной.
+ */
+public record SearchCursor(long fingerprint, float score, int pageId, int position, float maxScore) {
+    private static final int ENCODED_LENGTH = Long.BYTES + Float.BYTES * 2 + Integer.BYTES * 2;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    public static long getFingerprint(SearchQuery query, String siteUrl) {
+        long hash = FNV_OFFSET_BASIS;
+        byte[] bytes = (query.getNormalizedForm() + '\n' + siteUrl).getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    public static SearchCursor decode(String cursor) {
+        byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+        if (bytes.length != ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Invalid cursor length " + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        SearchCursor searchCursor = new SearchCursor(buffer.getLong(), buffer.getFloat(), buffer.getInt(),
+                buffer.getInt(), buffer.getFloat());
+        if (searchCursor.position() < 0) {
+            throw new IllegalArgumentException("Invalid cursor position " + searchCursor.position());
+        }
+        return searchCursor;
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_LENGTH)
+                .putLong(fingerprint)
+                .putFloat(score)
+                .putInt(pageId)
+                .putInt(position)
+                .putFloat(maxScore);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public boolean isFollowedBy(int pageId, float score) {
+        return score < this.score || (score == this.score && pageId > this.pageId);
+    }
+}
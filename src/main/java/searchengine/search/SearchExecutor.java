@@ -0,0 +1,76 @@
+package searchengine.search;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограниченный пул потоков поиска. Сопоставление по сайтам и подготовка результатов
+ * выполняются в нём параллельно; при заполненной очереди задача выполняется
+ * в потоке запроса, что ограничивает нагрузку без отказов.
+ */
+@Component
+public class SearchExecutor {
+    private final ThreadPoolExecutor executor;
+
+    public SearchExecutor(SearchConfiguration configuration) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory factory = runnable -> {
+            Thread thread = new Thread(runnable, "search-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        int threadsCount = configuration.getSearchThreads();
+        executor = new ThreadPoolExecutor(threadsCount, threadsCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(configuration.getSearchQueueCapacity()), factory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public <T> List<T> invokeAll(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.size() == 1) {
+            results.add(call(tasks.get(0)));
+            return results;
+        }
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> futures.add(executor.submit(task)));
+        for (Future<T> future : futures) {
+            results.add(getResult(future));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T call(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
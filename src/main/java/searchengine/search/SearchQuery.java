@@ -0,0 +1,98 @@
+package searchengine.search;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * Разобранный поисковый запрос: отдельные леммы и фразы, все условия объединяются по И.
+ * Для запроса с ИЛИ, НЕ или скобками дополнительно хранится дерево условий, а леммы и фразы
+ * содержат только положительные условия, по которым строятся сниппеты.
+ * В нечётком режиме неизвестные сайту леммы перед поиском заменяются похожими.
+ */
+@Getter
+public class SearchQuery {
+    private final Set<String> terms;
+    private final List<PhraseQuery> phrases;
+    private final QueryNode root;
+    private final boolean fuzzy;
+
+    public SearchQuery(Set<String> terms, List<PhraseQuery> phrases) {
+        this(terms, phrases, null, false);
+    }
+
+    private SearchQuery(Set<String> terms, List<PhraseQuery> phrases, QueryNode root, boolean fuzzy) {
+        this.terms = terms;
+        this.phrases = phrases;
+        this.root = root;
+        this.fuzzy = fuzzy;
+    }
+
+    public static SearchQuery of(QueryNode root) {
+        Set<String> terms = new LinkedHashSet<>();
+        List<PhraseQuery> phrases = new ArrayList<>();
+        collectPositiveConditions(root, terms, phrases);
+        return new SearchQuery(terms, phrases, root, false);
+    }
+
+    public SearchQuery toFuzzy() {
+        return new SearchQuery(terms, phrases, root, true);
+    }
+
+    public Set<String> getLemmas() {
+        Set<String> lemmas = new LinkedHashSet<>(terms);
+        phrases.forEach(phrase -> lemmas.addAll(Arrays.asList(phrase.getLemmas())));
+        return lemmas;
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty() && phrases.isEmpty();
+    }
+
+    public boolean isBoolean() {
+        return root != null;
+    }
+
+    public boolean isPhraseLemma(String lemma) {
+        for (PhraseQuery phrase : phrases) {
+            if (Arrays.asList(phrase.getLemmas()).contains(lemma)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getNormalizedForm() {
+        String prefix = fuzzy ? "~" : "";
+        if (isBoolean()) {
+            return prefix + root.getNormalizedForm();
+        }
+        List<String> parts = new ArrayList<>(terms);
+        phrases.forEach(phrase -> parts.add(phrase.getNormalizedForm()));
+        Collections.sort(parts);
+        return prefix + String.join(" ", parts);
+    }
+
+    public QueryNode toQueryNode() {
+        if (isBoolean()) {
+            return root;
+        }
+        List<QueryNode> nodes = new ArrayList<>();
+        terms.forEach(term -> nodes.add(new QueryNode.Term(term)));
+        phrases.forEach(phrase -> nodes.add(new QueryNode.Phrase(phrase)));
+        return new QueryNode.And(nodes);
+    }
+
+    private static void collectPositiveConditions(QueryNode node, Set<String> terms, List<PhraseQuery> phrases) {
+        switch (node) {
+            case QueryNode.Term term -> terms.add(term.lemma());
+            case QueryNode.Phrase phrase -> phrases.add(phrase.phrase());
+            case QueryNode.And and -> and.children().forEach(child -> collectPositiveConditions(child, terms, phrases));
+            case QueryNode.Or or -> or.children().forEach(child -> collectPositiveConditions(child, terms, phrases));
+            case QueryNode.Not not -> {
+            }
+            case null -> {
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package searchengine.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.stereotype.Component;
+import searchengine.config.SearchConfiguration;
+import searchengine.dto.search.SearchResponse;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Кэш готовых ответов поиска. Ключ - нормализованный запрос (отсортированные леммы и фразы),
+ * сайт и страница выдачи, поэтому запросы, отличающиеся только формой слов
+ * или порядком слов вне фраз, дают одну запись.
+ * Кроме ответов, на короткое время хранятся снимки начала выдачи запроса,
+ * из которых отдаются следующие страницы без повторного сопоставления.
+ * После индексации сайта сбрасываются записи этого сайта и записи поиска по всем сайтам.
+ * Поиск выполняется вне кэша, а его результат сохраняется, только если за время поиска
+ * поколение сайта не изменилось, чтобы ответ по старому индексу не пережил сброс.
+ */
+@Component
+public class SearchResultCache {
+    private static final String ALL_SITES = "All";
+    private final Cache<Key, SearchResponse> responses;
+    private final Cache<SnapshotKey, RankedPages> snapshots;
+    private final ConcurrentHashMap<String, Long> generations = new ConcurrentHashMap<>();
+
+    public SearchResultCache(SearchConfiguration configuration) {
+        responses = Caffeine.newBuilder()
+                .maximumSize(configuration.getResultCacheSize())
+                .expireAfterWrite(Duration.ofSeconds(configuration.getResultCacheTtlSeconds()))
+                .recordStats()
+                .build();
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(configuration.getSnapshotCacheSize())
+                .expireAfterWrite(Duration.ofSeconds(configuration.getSnapshotTtlSeconds()))
+                .build();
+    }
+
+    public SearchResponse get(SearchQuery query, String siteUrl, int offset, int limit,
+                              Supplier<SearchResponse> search) {
+        Key key = new Key(query.getNormalizedForm(), siteUrl, offset, limit);
+        SearchResponse response = responses.getIfPresent(key);
+        if (response != null) {
+            return response;
+        }
+        long generation = getGeneration(siteUrl);
+        SearchResponse searchResponse = search.get();
+        putIfCurrent(siteUrl, generation, () -> responses.put(key, searchResponse));
+        return searchResponse;
+    }
+
+    public long getGeneration(String siteUrl) {
+        return generations.getOrDefault(siteUrl, 0L);
+    }
+
+    public RankedPages getSnapshot(SearchQuery query, String siteUrl) {
+        return snapshots.getIfPresent(new SnapshotKey(query.getNormalizedForm(), siteUrl));
+    }
+
+    public void putSnapshot(SearchQuery query, String siteUrl, long generation, RankedPages rankedPages) {
+        putIfCurrent(siteUrl, generation,
+                () -> snapshots.put(new SnapshotKey(query.getNormalizedForm(), siteUrl), rankedPages));
+    }
+
+    public void invalidateSite(String siteUrl) {
+        generations.merge(siteUrl, 1L, Long::sum);
+        generations.merge(ALL_SITES, 1L, Long::sum);
+        responses.asMap().keySet().removeIf(key -> key.siteUrl().equals(siteUrl) || key.siteUrl().equals(ALL_SITES));
+        snapshots.asMap().keySet().removeIf(key -> key.siteUrl().equals(siteUrl) || key.siteUrl().equals(ALL_SITES));
+    }
+
+    private void putIfCurrent(String siteUrl, long generation, Runnable put) {
+        generations.compute(siteUrl, (url, current) -> {
+            if (Objects.requireNonNullElse(current, 0L) == generation) {
+                put.run();
+            }
+            return current;
+        });
+    }
+
+    public CacheStats getStats() {
+        return responses.stats();
+    }
+
+    public long getSize() {
+        return responses.estimatedSize();
+    }
+
+    private record Key(String query, String siteUrl, int offset, int limit) {
+    }
+
+    private record SnapshotKey(String query, String siteUrl) {
+    }
+}
@@ -0,0 +1,225 @@
+package searchengine.search;
+
+import searchengine.codec.VarIntCodec;
+import searchengine.parsers.PageLemmas;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс одного сайта: лемма -> {@link PostingList}.
+ * Запись выполняется стадией persist по мере индексации, чтение - поисковыми запросами.
+ * Запросы из одних лемм и фраз выполняются пересечением списков, булевы запросы -
+ * деревом итераторов от {@link QueryPlanner}.
+ */
+public class SiteIndex {
+    private static final int FREQUENCY_OCCURRENCE_MAX_PERCENT = 90;
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int pagesCount;
+    private long tokensCount;
+
+    public void addPage(int pageId, PageLemmas pageLemmas) {
+        lock.writeLock().lock();
+        try {
+            int pageLength = pageLemmas.getTokenCount();
+            for (int i = 0; i < pageLemmas.size(); i++) {
+                getOrCreatePostings(pageLemmas.getLemmas()[i]).add(pageId, pageLemmas.getCounts()[i], pageLength,
+                        VarIntCodec.encodeDeltas(pageLemmas.getPositions()[i]));
+            }
+            pagesCount++;
+            tokensCount += pageLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removePage(int pageId, Collection<String> lemmas) {
+        lock.writeLock().lock();
+        try {
+            int pageLength = 0;
+            for (String lemma : lemmas) {
+                PostingList postingList = postings.get(lemma);
+                if (postingList == null) {
+                    continue;
+                }
+                pageLength = Math.max(pageLength, postingList.findPageLength(pageId));
+                if (postingList.remove(pageId) && postingList.size() == 0) {
+                    postings.remove(lemma);
+                }
+            }
+            pagesCount = Math.max(0, pagesCount - 1);
+            tokensCount = Math.max(0, tokensCount - pageLength);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public RankedPages matchTop(SearchQuery query, RelevanceScorer scorer, int count, SearchCursor after,
+                                int exactCountThreshold) {
+        TopKSelector selector = new TopKSelector(count);
+        int matchesCount;
+        lock.readLock().lock();
+        try {
+            matchesCount = query.isBoolean()
+                    ? matchBoolean(query.getRoot(), scorer, selector, after, exactCountThreshold)
+                    : matchConjunction(query, scorer, selector, after);
+        } finally {
+            lock.readLock().unlock();
+        }
+        ScoredPages topPages = selector.toSortedPages();
+        return new RankedPages(topPages, matchesCount, topPages.size() == 0 ? 0 : topPages.getScore(0));
+    }
+
+    public int[][] getPositions(int pageId, List<String> lemmas) {
+        int[][] positions = new int[lemmas.size()][];
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < positions.length; i++) {
+                PostingList postingList = postings.get(lemmas.get(i));
+                positions[i] = VarIntCodec.decodeDeltas(postingList == null ? null : postingList.findPositions(pageId));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return positions;
+    }
+
+    public Map<String, Integer> getLemmaFrequencies() {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> frequencies = new HashMap<>(postings.size() * 2);
+            postings.forEach((lemma, postingList) -> frequencies.put(lemma, postingList.size()));
+            return frequencies;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    PostingList getOrCreatePostings(String lemma) {
+        return postings.computeIfAbsent(lemma, l -> new PostingList());
+    }
+
+    void setStatistics(int pagesCount, long tokensCount) {
+        this.pagesCount = pagesCount;
+        this.tokensCount = tokensCount;
+    }
+
+    private int matchBoolean(QueryNode root, RelevanceScorer scorer, TopKSelector selector, SearchCursor after,
+                             int exactCountThreshold) {
+        QueryPlanner planner = new QueryPlanner(postings, scorer, new SiteStatistics(pagesCount, tokensCount));
+        if (root instanceof QueryNode.Or or) {
+            return MaxScoreCollector.collect(planner.planClauses(or.children()), selector, after, exactCountThreshold);
+        }
+        PageIterator iterator = planner.plan(root);
+        if (iterator == null) {
+            return 0;
+        }
+        int matchesCount = 0;
+        for (int pageId = iterator.next(); pageId != PageIterator.NO_MORE_PAGES; pageId = iterator.next()) {
+            matchesCount++;
+            float score = iterator.score();
+            if (after == null || after.isFollowedBy(pageId, score)) {
+                selector.offer(pageId, score);
+            }
+        }
+        return matchesCount;
+    }
+
+    private int matchConjunction(SearchQuery query, RelevanceScorer scorer, TopKSelector selector,
+                                 SearchCursor after) {
+        List<String> lemmas = getMatchingLemmas(query);
+        if (lemmas.isEmpty()) {
+            return 0;
+        }
+        PostingList[] postingLists = new PostingList[lemmas.size()];
+        SiteStatistics statistics = new SiteStatistics(pagesCount, tokensCount);
+        RelevanceScorer.TermScorer[] termScorers = new RelevanceScorer.TermScorer[postingLists.length];
+        for (int i = 0; i < postingLists.length; i++) {
+            postingLists[i] = postings.get(lemmas.get(i));
+            termScorers[i] = scorer.getTermScorer(postingLists[i].size(), statistics);
+        }
+        int[][] phraseLists = new int[query.getPhrases().size()][];
+        for (int i = 0; i < phraseLists.length; i++) {
+            String[] phraseLemmas = query.getPhrases().get(i).getLemmas();
+            phraseLists[i] = new int[phraseLemmas.length];
+            for (int j = 0; j < phraseLemmas.length; j++) {
+                phraseLists[i][j] = lemmas.indexOf(phraseLemmas[j]);
+            }
+        }
+        return intersect(postingLists, termScorers, query.getPhrases(), phraseLists, selector, after);
+    }
+
+    private List<String> getMatchingLemmas(SearchQuery query) {
+        List<String> lemmas = new ArrayList<>();
+        for (String lemma : query.getLemmas()) {
+            PostingList postingList = postings.get(lemma);
+            if (postingList == null) {
+                return new ArrayList<>();
+            }
+            lemmas.add(lemma);
+        }
+        if (lemmas.size() > 1) {
+            lemmas.removeIf(lemma -> !query.isPhraseLemma(lemma)
+                    && postings.get(lemma).size() * 100L / Math.max(1, pagesCount) > FREQUENCY_OCCURRENCE_MAX_PERCENT);
+        }
+        lemmas.sort(Comparator.comparingInt(lemma -> postings.get(lemma).size()));
+        return lemmas;
+    }
+
+    /**
+     * Пересекает списки, начиная с самого редкого, и сразу передаёт совпавшие страницы в selector,
+     * не собирая все совпадения. Возвращает общее число совпавших страниц.
+     */
+    private int intersect(PostingList[] postingLists, RelevanceScorer.TermScorer[] termScorers,
+                          List<PhraseQuery> phrases, int[][] phraseLists, TopKSelector selector,
+                          SearchCursor after) {
+        PostingList rarest = postingLists[0];
+        int listsCount = postingLists.length;
+        int[] cursors = new int[listsCount];
+        int matchesCount = 0;
+        for (int i = 0; i < rarest.size(); i++) {
+            int pageId = rarest.getPageId(i);
+            int pageLength = rarest.getPageLength(i);
+            float score = termScorers[0].score(rarest.getRank(i), pageLength);
+            boolean matched = true;
+            cursors[0] = i;
+            for (int listIndex = 1; listIndex < listsCount; listIndex++) {
+                PostingList postingList = postingLists[listIndex];
+                int cursor = postingList.advance(cursors[listIndex], pageId);
+                cursors[listIndex] = cursor;
+                if (cursor == postingList.size()) {
+                    return matchesCount;
+                }
+                if (postingList.getPageId(cursor) != pageId) {
+                    matched = false;
+                    break;
+                }
+                score += termScorers[listIndex].score(postingList.getRank(cursor), pageLength);
+            }
+            if (matched && matchesPhrases(postingLists, cursors, phrases, phraseLists)) {
+                matchesCount++;
+                if (after == null || after.isFollowedBy(pageId, score)) {
+                    selector.offer(pageId, score);
+                }
+            }
+        }
+        return matchesCount;
+    }
+
+    private boolean matchesPhrases(PostingList[] postingLists, int[] cursors,
+                                   List<PhraseQuery> phrases, int[][] phraseLists) {
+        for (int i = 0; i < phraseLists.length; i++) {
+            int[][] positions = new int[phraseLists[i].length][];
+            for (int j = 0; j < positions.length; j++) {
+                int listIndex = phraseLists[i][j];
+                positions[j] = VarIntCodec.decodeDeltas(postingLists[listIndex].getPositions(cursors[listIndex]));
+            }
+            if (!PhraseMatcher.matches(positions, phrases.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,7 @@
+package searchengine.search;
+
+public record SiteStatistics(int pagesCount, long tokensCount) {
+    public double getAveragePageLength() {
+        return pagesCount == 0 ? 0 : (double) tokensCount / pagesCount;
+    }
+}
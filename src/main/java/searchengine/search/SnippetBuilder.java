@@ -0,0 +1,135 @@
+package searchengine.search;
+
+/**
+ * Построение сниппета по сохранённым при индексации позициям лемм и смещениям слов в тексте.
+ * Позиции всех лемм запроса сливаются в один упорядоченный список, по которому
+ * скользящим окном ищется участок текста с наибольшим числом разных лемм запроса.
+ * Морфология при этом не используется, время работы линейно по числу вхождений.
+ */
+public class SnippetBuilder {
+    private static final int WINDOW_TOKENS = 30;
+    private static final int MAX_SNIPPET_LENGTH = 200;
+    private static final String ELLIPSIS = "...";
+
+    public static String build(String text, int[] tokenOffsets, int[][] positions) {
+        int[] mergedPositions = new int[countPositions(positions)];
+        int[] mergedLemmas = new int[mergedPositions.length];
+        merge(positions, mergedPositions, mergedLemmas);
+        if (mergedPositions.length == 0 || tokenOffsets.length == 0) {
+            return getTextBeginning(text);
+        }
+        int[] window = findBestWindow(mergedPositions, mergedLemmas, positions.length);
+        return render(text, tokenOffsets, mergedPositions, mergedPositions[window[0]], mergedPositions[window[1]]);
+    }
+
+    private static int countPositions(int[][] positions) {
+        int count = 0;
+        for (int[] lemmaPositions : positions) {
+            count += lemmaPositions.length;
+        }
+        return count;
+    }
+
+    private static void merge(int[][] positions, int[] mergedPositions, int[] mergedLemmas) {
+        int[] cursors = new int[positions.length];
+        for (int i = 0; i < mergedPositions.length; i++) {
+            int minLemma = -1;
+            for (int lemma = 0; lemma < positions.length; lemma++) {
+                if (cursors[lemma] < positions[lemma].length && (minLemma < 0
+                        || positions[lemma][cursors[lemma]] < positions[minLemma][cursors[minLemma]])) {
+                    minLemma = lemma;
+                }
+            }
+            mergedPositions[i] = positions[minLemma][cursors[minLemma]++];
+            mergedLemmas[i] = minLemma;
+        }
+    }
+
+    private static int[] findBestWindow(int[] mergedPositions, int[] mergedLemmas, int lemmasCount) {
+        int[] lemmaCounts = new int[lemmasCount];
+        int distinct = 0;
+        int bestDistinct = 0;
+        int bestStart = 0;
+        int bestEnd = 0;
+        int left = 0;
+        for (int right = 0; right < mergedPositions.length; right++) {
+            if (lemmaCounts[mergedLemmas[right]]++ == 0) {
+                distinct++;
+            }
+            while (mergedPositions[right] - mergedPositions[left] >= WINDOW_TOKENS) {
+                if (--lemmaCounts[mergedLemmas[left]] == 0) {
+                    distinct--;
+                }
+                left++;
+            }
+            if (distinct > bestDistinct || (distinct == bestDistinct && right - left > bestEnd - bestStart)) {
+                bestDistinct = distinct;
+                bestStart = left;
+                bestEnd = right;
+            }
+        }
+        return new int[]{bestStart, bestEnd};
+    }
+
+    private static String render(String text, int[] tokenOffsets, int[] mergedPositions,
+                                 int windowStart, int windowEnd) {
+        int tokensCount = tokenOffsets.length / 2;
+        int firstToken = Math.min(windowStart, tokensCount - 1);
+        int lastToken = Math.min(windowEnd, tokensCount - 1);
+        while (getLength(tokenOffsets, firstToken, lastToken) < MAX_SNIPPET_LENGTH) {
+            boolean extended = false;
+            if (lastToken + 1 < tokensCount) {
+                lastToken++;
+                extended = true;
+            }
+            if (firstToken > 0 && getLength(tokenOffsets, firstToken - 1, lastToken) < MAX_SNIPPET_LENGTH) {
+                firstToken--;
+                extended = true;
+            }
+            if (!extended) {
+                break;
+            }
+        }
+        int from = tokenOffsets[firstToken * 2];
+        int to = Math.min(text.length(), tokenOffsets[lastToken * 2 + 1]);
+        if (from >= to) {
+            return getTextBeginning(text);
+        }
+        StringBuilder builder = new StringBuilder(to - from + 32);
+        if (firstToken > 0) {
+            builder.append(ELLIPSIS);
+        }
+        int textPosition = from;
+        for (int token : mergedPositions) {
+            if (token < firstToken) {
+                continue;
+            }
+            if (token > lastToken) {
+                break;
+            }
+            int wordStart = tokenOffsets[token * 2];
+            if (wordStart < textPosition || wordStart >= to) {
+                continue;
+            }
+            int wordEnd = Math.min(to, tokenOffsets[token * 2 + 1]);
+            builder.append(text, textPosition, wordStart).append("<b>").append(text, wordStart, wordEnd).append("</b>");
+            textPosition = wordEnd;
+        }
+        builder.append(text, textPosition, to);
+        if (lastToken < tokensCount - 1) {
+            builder.append(ELLIPSIS);
+        }
+        return builder.toString();
+    }
+
+    private static int getLength(int[] tokenOffsets, int firstToken, int lastToken) {
+        return tokenOffsets[lastToken * 2 + 1] - tokenOffsets[firstToken * 2];
+    }
+
+    private static String getTextBeginning(String text) {
+        if (text.length() <= MAX_SNIPPET_LENGTH) {
+            return text;
+        }
+        return text.substring(0, MAX_SNIPPET_LENGTH) + ELLIPSIS;
+    }
+}
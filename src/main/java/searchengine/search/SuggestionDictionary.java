@@ -0,0 +1,84 @@
+package searchengine.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import searchengine.model.Site;
+import searchengine.repository.SiteRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Словари подсказок по сайтам и общий словарь всех сайтов. Строятся по индексу в памяти
+ * при старте и заново для сайта, когда его индексация завершена; поиск подсказок читает
+ * готовые неизменяемые словари без блокировок. Переиндексация отдельных страниц только
+ * помечает сайт, и его словарь вместе с общим пересобирается один раз за период
+ * suggestion-rebuild-delay-millis, а не на каждую страницу.
+ */
+@Component
+@RequiredArgsConstructor
+public class SuggestionDictionary {
+    private static final String ALL_SITES = "All";
+    private final InvertedIndex invertedIndex;
+    private final SiteRepository siteRepository;
+    private final Map<String, SuggestionIndex> sites = new ConcurrentHashMap<>();
+    private final Map<String, Site> changedSites = new ConcurrentHashMap<>();
+    private volatile SuggestionIndex allSites = SuggestionIndex.EMPTY;
+
+    @PostConstruct
+    public synchronized void load() {
+        for (Site site : siteRepository.findAll()) {
+            sites.put(site.getUrl(), buildSiteIndex(site));
+        }
+        allSites = SuggestionIndex.merge(sites.values());
+    }
+
+    public synchronized void rebuildSite(Site site) {
+        changedSites.remove(site.getUrl());
+        sites.put(site.getUrl(), buildSiteIndex(site));
+        allSites = SuggestionIndex.merge(sites.values());
+    }
+
+    public void markSiteChanged(Site site) {
+        changedSites.put(site.getUrl(), site);
+    }
+
+    @Scheduled(fixedDelayString = "${search-settings.suggestion-rebuild-delay-millis:2000}")
+    public synchronized void rebuildChangedSites() {
+        if (changedSites.isEmpty()) {
+            return;
+        }
+        Set<String> siteUrls = Set.copyOf(changedSites.keySet());
+        for (String siteUrl : siteUrls) {
+            Site site = changedSites.remove(siteUrl);
+            if (site != null) {
+                sites.put(siteUrl, buildSiteIndex(site));
+            }
+        }
+        allSites = SuggestionIndex.merge(sites.values());
+    }
+
+    public synchronized void removeSite(String siteUrl) {
+        changedSites.remove(siteUrl);
+        if (sites.remove(siteUrl) != null) {
+            allSites = SuggestionIndex.merge(sites.values());
+        }
+    }
+
+    public List<String> suggest(String siteUrl, String prefix, int limit) {
+        SuggestionIndex index = siteUrl.equals(ALL_SITES) ? allSites : sites.getOrDefault(siteUrl, SuggestionIndex.EMPTY);
+        return index.suggest(prefix, limit);
+    }
+
+    public SuggestionIndex getVocabulary(String siteUrl) {
+        return sites.getOrDefault(siteUrl, SuggestionIndex.EMPTY);
+    }
+
+    private SuggestionIndex buildSiteIndex(Site site) {
+        return SuggestionIndex.build(invertedIndex.getSiteIndex(site.getId()).getLemmaFrequencies());
+    }
+}
@@ -0,0 +1,170 @@
+package searchengine.search;
+
+import java.util.*;
+
+/**
+ * Неизменяемый словарь подсказок: леммы в лексикографическом порядке и их частоты
+ * (число страниц с леммой) в параллельных массивах. Леммы с заданным префиксом занимают
+ * непрерывный диапазон, который находится двумя бинарными поисками, а лучшие по частоте
+ * отбираются {@link TopKSelector} за один проход по диапазону без выделения строк.
+ * Тот же массив служит неявным префиксным деревом для поиска лемм на расстоянии Левенштейна.
+ */
+public class SuggestionIndex {
+    public static final SuggestionIndex EMPTY = new SuggestionIndex(new String[0], new int[0]);
+    private final String[] lemmas;
+    private final int[] frequencies;
+    private final int maxLemmaLength;
+
+    private SuggestionIndex(String[] lemmas, int[] frequencies) {
+        this.lemmas = lemmas;
+        this.frequencies = frequencies;
+        int maxLength = 0;
+        for (String lemma : lemmas) {
+            maxLength = Math.max(maxLength, lemma.length());
+        }
+        maxLemmaLength = maxLength;
+    }
+
+    public static SuggestionIndex build(Map<String, Integer> lemmaFrequencies) {
+        String[] lemmas = lemmaFrequencies.keySet().toArray(new String[0]);
+        Arrays.sort(lemmas);
+        int[] frequencies = new int[lemmas.length];
+        for (int i = 0; i < lemmas.length; i++) {
+            frequencies[i] = lemmaFrequencies.get(lemmas[i]);
+        }
+        return new SuggestionIndex(lemmas, frequencies);
+    }
+
+    public static SuggestionIndex merge(Collection<SuggestionIndex> indexes) {
+        Map<String, Integer> lemmaFrequencies = new HashMap<>();
+        for (SuggestionIndex index : indexes) {
+            for (int i = 0; i < index.lemmas.length; i++) {
+                lemmaFrequencies.merge(index.lemmas[i], index.frequencies[i], Integer::sum);
+            }
+        }
+        return build(lemmaFrequencies);
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        int from = lowerBound(prefix);
+        int to = lowerBound(prefix + Character.MAX_VALUE);
+        TopKSelector selector = new TopKSelector(limit);
+        for (int i = from; i < to; i++) {
+            selector.offer(i, frequencies[i]);
+        }
+        ScoredPages topLemmas = selector.toSortedPages();
+        List<String> suggestions = new ArrayList<>(topLemmas.size());
+        for (int i = 0; i < topLemmas.size(); i++) {
+            suggestions.add(lemmas[topLemmas.getPageId(i)]);
+        }
+        return suggestions;
+    }
+
+    public boolean contains(String lemma) {
+        int index = lowerBound(lemma);
+        return index < lemmas.length && lemmas[index].equals(lemma);
+    }
+
+    /**
+     * Леммы на расстоянии Левенштейна не больше maxDistance от слова, ближние и частые первыми.
+     * Строки таблицы расстояний считаются только в полосе шириной 2 * maxDistance + 1 у диагонали
+     * и переиспользуются для соседних лемм с общим префиксом; как только все значения строки
+     * превышают maxDistance, весь диапазон лемм с этим префиксом пропускается экспоненциальным поиском.
+     */
+    public List<String> findSimilar(String word, int maxDistance, int limit) {
+        int[][] rows = new int[maxLemmaLength + 1][word.length() + 1];
+        for (int column = 0; column <= word.length(); column++) {
+            rows[0][column] = column;
+        }
+        List<int[]> matches = new ArrayList<>();
+        String rowsLemma = "";
+        int rowsDepth = 0;
+        int index = 0;
+        while (index < lemmas.length) {
+            String lemma = lemmas[index];
+            int depth = 0;
+            while (depth < rowsDepth && depth < lemma.length() && rowsLemma.charAt(depth) == lemma.charAt(depth)) {
+                depth++;
+            }
+            boolean pruned = false;
+            while (depth < lemma.length() && !pruned) {
+                pruned = fillRow(rows[depth], rows[depth + 1], depth + 1, lemma.charAt(depth), word, maxDistance)
+                        > maxDistance;
+                depth++;
+            }
+            rowsLemma = lemma;
+            rowsDepth = depth;
+            if (pruned) {
+                index = skipPrefix(index, depth);
+                continue;
+            }
+            if (Math.abs(lemma.length() - word.length()) <= maxDistance
+                    && rows[depth][word.length()] <= maxDistance) {
+                matches.add(new int[]{index, rows[depth][word.length()]});
+            }
+            index++;
+        }
+        matches.sort(Comparator.<int[]>comparingInt(match -> match[1])
+                .thenComparing(match -> -frequencies[match[0]]));
+        List<String> similarLemmas = new ArrayList<>();
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            similarLemmas.add(lemmas[matches.get(i)[0]]);
+        }
+        return similarLemmas;
+    }
+
+    public int size() {
+        return lemmas.length;
+    }
+
+    private static int fillRow(int[] previous, int[] row, int depth, char c, String word, int maxDistance) {
+        int from = Math.max(1, depth - maxDistance);
+        int to = Math.min(word.length(), depth + maxDistance);
+        row[0] = depth;
+        row[from - 1] = from == 1 ? depth : maxDistance + 1;
+        int minDistance = from == 1 ? depth : maxDistance + 1;
+        for (int column = from; column <= to; column++) {
+            int substitution = previous[column - 1] + (word.charAt(column - 1) == c ? 0 : 1);
+            row[column] = Math.min(substitution, Math.min(previous[column], row[column - 1]) + 1);
+            minDistance = Math.min(minDistance, row[column]);
+        }
+        if (to < word.length()) {
+            row[to + 1] = maxDistance + 1;
+        }
+        return minDistance;
+    }
+
+    private int skipPrefix(int index, int prefixLength) {
+        String prefix = lemmas[index];
+        int low = index + 1;
+        int step = 1;
+        while (low + step < lemmas.length && lemmas[low + step].regionMatches(0, prefix, 0, prefixLength)) {
+            low += step + 1;
+            step <<= 1;
+        }
+        int high = Math.min(lemmas.length, low + step);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lemmas[middle].regionMatches(0, prefix, 0, prefixLength)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = lemmas.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lemmas[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
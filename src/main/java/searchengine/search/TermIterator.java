@@ -0,0 +1,50 @@
+package searchengine.search;
+
+class TermIterator implements PageIterator {
+    private static final float SCORE_BOUND_MARGIN = 1.0001f;
+    private final PostingList postingList;
+    private final RelevanceScorer.TermScorer termScorer;
+    private final float maxScore;
+    private int index;
+    private int pageId = -1;
+
+    TermIterator(PostingList postingList, RelevanceScorer.TermScorer termScorer) {
+        this.postingList = postingList;
+        this.termScorer = termScorer;
+        maxScore = termScorer.score(postingList.getMaxRank(), postingList.getMinPageLength()) * SCORE_BOUND_MARGIN;
+    }
+
+    @Override
+    public int pageId() {
+        return pageId;
+    }
+
+    @Override
+    public int advance(int target) {
+        if (target <= pageId) {
+            return pageId;
+        }
+        index = postingList.advance(index, target);
+        pageId = index < postingList.size() ? postingList.getPageId(index) : NO_MORE_PAGES;
+        return pageId;
+    }
+
+    @Override
+    public float score() {
+        return termScorer.score(postingList.getRank(index), postingList.getPageLength(index));
+    }
+
+    @Override
+    public float getMaxScore() {
+        return maxScore;
+    }
+
+    @Override
+    public long getCost() {
+        return postingList.size();
+    }
+
+    byte[] getPositions() {
+        return postingList.getPositions(index);
+    }
+}
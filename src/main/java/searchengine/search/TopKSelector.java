@@ -0,0 +1,99 @@
+package searchengine.search;
+
+/**
+ * Отбор k лучших страниц по убыванию оценки с помощью ограниченной min-кучи:
+ * в вершине хранится худшая из отобранных страниц, и новая страница
+ * попадает в кучу, только если она лучше вершины. При равных оценках
+ * выше считается страница с меньшим id.
+ */
+public class TopKSelector {
+    private final int[] pageIds;
+    private final float[] scores;
+    private int size;
+
+    public TopKSelector(int k) {
+        pageIds = new int[Math.max(0, k)];
+        scores = new float[Math.max(0, k)];
+    }
+
+    public void offer(int pageId, float score) {
+        if (size < pageIds.length) {
+            pageIds[size] = pageId;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (size > 0 && isBetter(pageId, score, 0)) {
+            pageIds[0] = pageId;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+
+    public boolean isFull() {
+        return size > 0 && size == pageIds.length;
+    }
+
+    public float getMinScore() {
+        return scores[0];
+    }
+
+    public void offerAll(ScoredPages pages) {
+        for (int i = 0; i < pages.size(); i++) {
+            offer(pages.getPageId(i), pages.getScore(i));
+        }
+    }
+
+    public ScoredPages toSortedPages() {
+        int count = size;
+        for (int end = count - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+        ScoredPages result = new ScoredPages(count);
+        for (int i = 0; i < count; i++) {
+            result.add(pageIds[i], scores[i]);
+        }
+        size = 0;
+        return result;
+    }
+
+    private boolean isBetter(int pageId, float score, int index) {
+        return score > scores[index] || (score == scores[index] && pageId < pageIds[index]);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBetter(pageIds[parent], scores[parent], index)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int end) {
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= end) {
+                return;
+            }
+            if (child + 1 < end && isBetter(pageIds[child], scores[child], child + 1)) {
+                child++;
+            }
+            if (!isBetter(pageIds[index], scores[index], child)) {
+                return;
+            }
+            swap(index, child);
+            index = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int pageId = pageIds[i];
+        pageIds[i] = pageIds[j];
+        pageIds[j] = pageId;
+        float score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+}
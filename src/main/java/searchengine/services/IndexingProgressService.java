@@ -0,0 +1,7 @@
+package searchengine.services;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface IndexingProgressService {
+    SseEmitter subscribe();
+}
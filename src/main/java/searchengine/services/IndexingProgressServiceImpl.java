@@ -0,0 +1,129 @@
+package searchengine.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import searchengine.crawler.CrawlProgressRegistry;
+import searchengine.crawler.LatencyHistogram;
+import searchengine.crawler.ProgressSnapshot;
+import searchengine.dto.indexing.IndexingProgress;
+import searchengine.dto.indexing.SiteProgressItem;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Рассылка хода индексации подписчикам SSE. Раз в indexing-progress-settings.interval-millis снимаются счётчики
+ * конвейеров; скорость и перцентили считаются по разности с предыдущим снимком, то есть
+ * относятся к последнему интервалу. Пока подписчиков нет, снимки не делаются. Предыдущий снимок
+ * другого конвейера (сайт переиндексирован) или с большими счётчиками не используется,
+ * и интервал считается как первый.
+ */
+@Service
+@RequiredArgsConstructor
+public class IndexingProgressServiceImpl implements IndexingProgressService {
+    private static final String EVENT_NAME = "progress";
+    private final CrawlProgressRegistry crawlProgressRegistry;
+    private final IndexingService indexingService;
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final Map<String, ProgressSnapshot> previousSnapshots = new HashMap<>();
+
+    @Override
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${indexing-progress-settings.interval-millis:1000}")
+    public synchronized void publishProgress() {
+        if (emitters.isEmpty()) {
+            previousSnapshots.clear();
+            return;
+        }
+        IndexingProgress progress = getProgress();
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_NAME).data(progress));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    private IndexingProgress getProgress() {
+        List<ProgressSnapshot> snapshots = crawlProgressRegistry.getSnapshots();
+        snapshots.sort(Comparator.comparing(ProgressSnapshot::siteUrl));
+        List<SiteProgressItem> sites = new ArrayList<>(snapshots.size());
+        Map<String, ProgressSnapshot> currentSnapshots = new HashMap<>();
+        for (ProgressSnapshot snapshot : snapshots) {
+            ProgressSnapshot previous = previousSnapshots.get(snapshot.siteUrl());
+            sites.add(getSiteProgressItem(snapshot, isPreviousOf(previous, snapshot) ? previous : null));
+            currentSnapshots.put(snapshot.siteUrl(), snapshot);
+        }
+        previousSnapshots.clear();
+        previousSnapshots.putAll(currentSnapshots);
+        IndexingProgress progress = new IndexingProgress();
+        progress.setIndexing(indexingService.isIndexing());
+        progress.setSites(sites);
+        return progress;
+    }
+
+    private SiteProgressItem getSiteProgressItem(ProgressSnapshot snapshot, ProgressSnapshot previous) {
+        SiteProgressItem item = new SiteProgressItem();
+        item.setUrl(snapshot.siteUrl());
+        item.setName(snapshot.siteName());
+        item.setActive(snapshot.active());
+        item.setFetched(snapshot.fetchedPages());
+        item.setFailed(snapshot.failedPages());
+        item.setParsed(snapshot.parsedPages());
+        item.setPersisted(snapshot.persistedPages());
+        item.setFrontierSize(snapshot.frontierSize());
+        item.setPendingPages(snapshot.pendingPages());
+        item.setParseQueue(snapshot.parseQueueSize());
+        item.setAnalyzeQueue(snapshot.analyzeQueueSize());
+        item.setPersistQueue(snapshot.persistQueueSize());
+        if (previous != null && snapshot.timeNanos() > previous.timeNanos()) {
+            double seconds = (snapshot.timeNanos() - previous.timeNanos()) / 1e9;
+            item.setPagesPerSecond(round((snapshot.persistedPages() - previous.persistedPages()) / seconds));
+        }
+        long[] previousFetchLatency = previous == null ? null : previous.fetchLatencyCounts();
+        long[] previousFlushTime = previous == null ? null : previous.flushTimeCounts();
+        item.setFetchLatencyP50(getPercentileMillis(snapshot.fetchLatencyCounts(), previousFetchLatency, 0.5));
+        item.setFetchLatencyP95(getPercentileMillis(snapshot.fetchLatencyCounts(), previousFetchLatency, 0.95));
+        item.setFetchLatencyP99(getPercentileMillis(snapshot.fetchLatencyCounts(), previousFetchLatency, 0.99));
+        item.setFlushTimeP50(getPercentileMillis(snapshot.flushTimeCounts(), previousFlushTime, 0.5));
+        item.setFlushTimeP95(getPercentileMillis(snapshot.flushTimeCounts(), previousFlushTime, 0.95));
+        item.setFlushTimeP99(getPercentileMillis(snapshot.flushTimeCounts(), previousFlushTime, 0.99));
+        return item;
+    }
+
+    private static boolean isPreviousOf(ProgressSnapshot previous, ProgressSnapshot snapshot) {
+        return previous != null && previous.pipelineId() == snapshot.pipelineId()
+                && previous.persistedPages() <= snapshot.persistedPages()
+                && !hasDecreased(previous.fetchLatencyCounts(), snapshot.fetchLatencyCounts())
+                && !hasDecreased(previous.flushTimeCounts(), snapshot.flushTimeCounts());
+    }
+
+    private static boolean hasDecreased(long[] previousCounts, long[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] < previousCounts[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double getPercentileMillis(long[] counts, long[] previousCounts, double percentile) {
+        return round(LatencyHistogram.getPercentileMicros(counts, previousCounts, percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
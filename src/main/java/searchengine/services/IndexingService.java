@@ -7,4 +7,5 @@ public interface IndexingService {
     IndexingResponse startIndexing();
     IndexingResponse stopIndexing();
     IndexingResponse indexPage(String url) throws IOException;
+    boolean isIndexing();
 }
@@ -8,21 +8,42 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import searchengine.config.SearchConfiguration;
+import searchengine.codec.ContentCodec;
+import searchengine.codec.VarIntCodec;
+import searchengine.config.FrontierConfiguration;
+import searchengine.config.PipelineConfiguration;
 import searchengine.config.SitesList;
+import searchengine.crawler.AnalyzedPage;
+import searchengine.crawler.CrawlPipeline;
+import searchengine.crawler.CrawlProgressRegistry;
+import searchengine.crawler.LemmaDictionary;
+import searchengine.crawler.LemmaDictionaryRegistry;
+import searchengine.crawler.PageFetcher;
+import searchengine.crawler.PipelineStages;
+import searchengine.crawler.PolitenessScheduler;
+import searchengine.crawler.UrlCanonicalizer;
+import searchengine.crawler.UrlFrontier;
 import searchengine.dto.indexing.*;
 import searchengine.model.*;
 import searchengine.parsers.HtmlParser;
 import searchengine.parsers.LemmaFinder;
+import searchengine.parsers.PageLemmas;
+import searchengine.repository.BulkInsertRepository;
+import searchengine.repository.IndexRows;
 import searchengine.repository.IndexRepository;
 import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
 import searchengine.repository.SiteRepository;
+import searchengine.search.InvertedIndex;
+import searchengine.search.SearchResultCache;
+import searchengine.search.SuggestionDictionary;
+import searchengine.statistics.IndexCounters;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -35,23 +56,26 @@ public class IndexingServiceImpl implements IndexingService {
     private final LemmaRepository lemmaRepository;
     @Autowired
     private final IndexRepository indexRepository;
+    private final BulkInsertRepository bulkInsertRepository;
+    private final LemmaDictionaryRegistry lemmaDictionaryRegistry;
+    private final InvertedIndex invertedIndex;
+    private final SearchResultCache searchResultCache;
+    private final SuggestionDictionary suggestionDictionary;
+    private final IndexCounters indexCounters;
     private final SitesList sitesList;
-    private final SearchConfiguration configuration;
+    private final PipelineConfiguration pipelineConfiguration;
+    private final FrontierConfiguration frontierConfiguration;
+    private final PageFetcher pageFetcher;
+    private final PolitenessScheduler politenessScheduler;
+    private final CrawlProgressRegistry crawlProgressRegistry;
+    private final ContentCodec contentCodec;
     private final Logger logger = LogManager.getLogger("indexingServiceLogger");
-    private boolean performingIndexing;
-    private boolean singlePageIndexing;
+    private volatile boolean performingIndexing;
+    private volatile boolean singlePageIndexing;
+    private volatile AtomicInteger remainingSites;
     private ThreadPoolExecutor executor;
-    private ForkJoinPool forkJoinPool;
-    private LemmaFinder lemmaFinder;
-    private static final int MAX_PAGE_LIST_SIZE = 1000;
-
-    {
-        try {
-            lemmaFinder = LemmaFinder.getInstance();
-        } catch (IOException e) {
-            logger.error(e.getMessage());
-        }
-    }
+    private final Set<CrawlPipeline> pipelines = ConcurrentHashMap.newKeySet();
+    private final LemmaFinder lemmaFinder;
 
     @Override
     public IndexingResponse startIndexing() {
@@ -68,23 +92,47 @@ public class IndexingServiceImpl implements IndexingService {
         return response;
     }
 
+    @Override
+    public boolean isIndexing() {
+        return performingIndexing || singlePageIndexing;
+    }
+
     private void runSitesCrawling() {
+        AtomicInteger sitesCount = new AtomicInteger(sitesList.getSitesCount());
+        remainingSites = sitesCount;
         executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(sitesList.getSitesCount());
         for (Site site : sitesList.getSites()) {
             executor.execute(() -> {
-                deleteSiteDataFromDB(site);
-                site.setLastError("");
-                site.setStatus(SiteStatus.INDEXING);
-                site.setStatusTime(LocalDateTime.now());
-                runPagesCrawling(saveSiteInDB(site));
+                try {
+                    deleteSiteDataFromDB(site);
+                    site.setLastError("");
+                    site.setStatus(SiteStatus.INDEXING);
+                    site.setStatusTime(LocalDateTime.now());
+                    runPagesCrawling(saveSiteInDB(site));
+                } finally {
+                    completeSiteCrawling(sitesCount);
+                }
             });
         }
     }
 
+    private synchronized void completeSiteCrawling(AtomicInteger sitesCount) {
+        if (sitesCount.decrementAndGet() == 0 && remainingSites == sitesCount && performingIndexing) {
+            performingIndexing = false;
+            executor.shutdown();
+            logger.info("Indexing completed");
+        }
+    }
+
     private void deleteSiteDataFromDB(Site site) {
         Optional<Site> siteOptional = siteRepository.findByUrl(site.getUrl());
         if (siteOptional.isPresent()) {
             Site siteEntity = siteOptional.get();
+            lemmaDictionaryRegistry.removeDictionary(siteEntity);
+            invertedIndex.removeSite(siteEntity.getId());
+            searchResultCache.invalidateSite(siteEntity.getUrl());
+            suggestionDictionary.removeSite(siteEntity.getUrl());
+            indexCounters.removeSite(siteEntity.getId());
             deleteSiteLemmasFromDB(siteEntity);
             deleteSiteFromDB(siteEntity);
         }
@@ -106,11 +154,12 @@ public class IndexingServiceImpl implements IndexingService {
     }
 
     private void runPagesCrawling(Site site) {
+        CrawlPipeline pipeline = new CrawlPipeline(site, pipelineConfiguration, new SitePipelineStages(),
+                politenessScheduler, new UrlFrontier(frontierConfiguration));
+        pipelines.add(pipeline);
+        crawlProgressRegistry.register(site.getUrl(), pipeline);
         try {
-            List<Page> pages = getRecursivePageCrawlingResult(site);
-            if (pages.size() > 0) {
-                checkAndSavePagesToDB(pages, site);
-            }
+            pipeline.run(site.getUrl() + "/");
             if (!performingIndexing) {
                 handleIndexingError(site, "Индексация прервана пользователем");
             } else {
@@ -121,67 +170,39 @@ public class IndexingServiceImpl implements IndexingService {
             logger.error("Indexing error site " + site.getUrl() + ": " + exception.getMessage());
             Thread.currentThread().interrupt();
             handleIndexingError(site, exception.getMessage());
+        } finally {
+            pipelines.remove(pipeline);
+            crawlProgressRegistry.unregister(site.getUrl(), pipeline);
+            searchResultCache.invalidateSite(site.getUrl());
+            suggestionDictionary.rebuildSite(site);
         }
         logger.info("Site " + site.getUrl() + ": indexing completed.");
     }
 
-    private List<Page> getRecursivePageCrawlingResult(Site site) {
-        forkJoinPool = new ForkJoinPool();
-        Set<String> links = new HashSet<>();
-        String link = site.getUrl() + "/";
-        links.add(link);
-        RecursiveTask<List<Page>> recursiveTask = getIndexRecursiveTask(links, link, site);
-        return forkJoinPool.invoke(recursiveTask);
-    }
-
-    private RecursiveTask<List<Page>> getIndexRecursiveTask(Set<String> links, String link, Site site) {
-        return new RecursiveTask() {
-            @Override
-            protected List<Page> compute() {
-                try {
-                    if (!performingIndexing) {
-                        Thread.currentThread().interrupt();
-                        return new ArrayList<>();
-                    }
-                    return getSitePagesList(links, link, site);
-                } catch (Exception e) {
-                    logger.error(e.getMessage());
-                    return new ArrayList<>();
-                }
-            }
-        };
-    }
-
-    private List<Page> getSitePagesList(Set<String> links, String link, Site site) throws IOException, InterruptedException {
-        List<Page> pages = addNewPageToEmptyList(link, site);
-        pages = addAllChildPages(pages, links);
-        if (pages.size() > MAX_PAGE_LIST_SIZE) {
-            checkAndSavePagesToDB(pages, site);
-        }
-        return pages;
-    }
-
-    private List<Page> addNewPageToEmptyList(String link, Site site) throws IOException, InterruptedException {
-        List<Page> pages = new ArrayList<>();
-        Page page = getNewPage(link, site);
-        pages.add(page);
-        return pages;
-    }
-
     private Page getNewPage(String url, Site site) throws IOException, InterruptedException {
         Document document = getHtmlDocumentByUrl(url);
+        return getNewPage(url, document, site);
+    }
+
+    private Page getNewPage(String url, Document document, Site site) {
         Page page = new Page();
         page.setSite(site);
-        page.setPath(url.replaceFirst(site.getUrl(), ""));
+        page.setPath(getPagePath(url, site));
         page.setCode(getPageStatusCode(document));
-        page.setContent(getPageContent(document));
-        page.setChildLinks(getChildLinksOfDocument(document, site.getUrl()));
+        page.setContent(getPageContent(document), contentCodec);
+        page.setTitle(HtmlParser.getTitle(document));
+        page.setText(HtmlParser.getText(document));
+        page.setChildLinks(getChildLinksOfDocument(document, UrlCanonicalizer.canonicalizeSiteUrl(site.getUrl())));
         return page;
     }
 
+    private String getPagePath(String url, Site site) {
+        String siteUrl = UrlCanonicalizer.canonicalizeSiteUrl(site.getUrl());
+        return url.startsWith(siteUrl) ? url.substring(siteUrl.length()) : url.replaceFirst(site.getUrl(), "");
+    }
+
     private Document getHtmlDocumentByUrl(String url) throws IOException, InterruptedException {
-        Thread.sleep(1500);
-        return HtmlParser.getDocumentByUrl(url, configuration);
+        return pageFetcher.fetch(url);
     }
 
     private int getPageStatusCode(Document document) {
@@ -195,13 +216,12 @@ public class IndexingServiceImpl implements IndexingService {
     private Set<String> getChildLinksOfDocument(Document document, String siteUrl) {
         Set<String> links = new HashSet<>();
         if (!performingIndexing) {
-            Thread.currentThread().interrupt();
             return links;
         }
         Elements elements = HtmlParser.getHrefElements(document);
         for (Element element : elements) {
-            String link = element.absUrl("href");
-            if (isSiteLink(link, siteUrl)) {
+            String link = UrlCanonicalizer.canonicalize(element.absUrl("href"));
+            if (link != null && isSiteLink(link, siteUrl)) {
                 links.add(link);
             }
         }
@@ -209,109 +229,65 @@ public class IndexingServiceImpl implements IndexingService {
     }
 
     private boolean isSiteLink(String link, String siteUrl) {
-        String regexString2 = siteUrl + "[^:,.#&%?\s]+";
-        String regexString3 = siteUrl + "[^:,#&%?\s]+\\.html";
+        String regexString2 = siteUrl + "[^:,.#&?\s]+";
+        String regexString3 = siteUrl + "[^:,#&?\s]+\\.html";
         String regex = regexString2 + "|" + regexString3;
         return link.matches(regex);
     }
 
-    private List<Page> addAllChildPages(List<Page> pages, Set<String> links) {
-        if (!performingIndexing) {
-            Thread.currentThread().interrupt();
-            return pages;
-        }
-        List<RecursiveTask> taskList = getRecursiveTaskList(pages.get(0), links);
-        for (RecursiveTask<List<Page>> task : taskList) {
-            pages.addAll(task.join());
-        }
-        return pages;
-    }
-
-    private List<RecursiveTask> getRecursiveTaskList(Page page, Set<String> links) {
-        List<RecursiveTask> taskList = new ArrayList<>();
-        if (!performingIndexing) {
-            Thread.currentThread().interrupt();
-            return taskList;
-        }
-        for (String childLink : page.getChildLinks()) {
-            if (links.contains(childLink)) {
-                continue;
-            }
-            links.add(childLink);
-            RecursiveTask<List<Page>> task = getIndexRecursiveTask(links, childLink, page.getSite());
-            task.fork();
-            taskList.add(task);
-        }
-        return taskList;
-    }
-
-    private synchronized void checkAndSavePagesToDB(List<Page> pages, Site site) {
-        List<String> pathsOfPages = pages.stream().map(p -> p.getPath()).toList();
+    private void checkAndSavePagesToDB(List<AnalyzedPage> pages, Site site) {
+        List<String> pathsOfPages = pages.stream().map(p -> p.getPage().getPath()).toList();
         List<String> pathsOfPagesFromDB = pageRepository.findPathByPathInAndSite(pathsOfPages, site);
         if (!performingIndexing) {
-            Thread.currentThread().interrupt();
             return;
         }
-        List<Page> pagesForDelete = pages.stream().filter(p -> pathsOfPagesFromDB.contains(p.getPath())).toList();
-        pages.removeAll(pagesForDelete);
-        if (pages.size() > 0) {
-            pages = (List<Page>) pageRepository.saveAll(pages);
-            addNewPagesIndexingData(pages, site);
+        List<AnalyzedPage> newPages = pages.stream()
+                .filter(p -> !pathsOfPagesFromDB.contains(p.getPage().getPath()))
+                .toList();
+        if (newPages.size() > 0) {
+            bulkInsertRepository.insertPages(newPages.stream().map(AnalyzedPage::getPage).toList());
+            addNewPagesIndexingData(newPages, site);
         }
     }
 
-    private void addNewPagesIndexingData(List<Page> pages, Site site) throws RuntimeException {
-        List<Lemma> lemmaEntities = lemmaRepository.findBySite(site);
-        List<Index> indexEntities = new ArrayList<>();
-        for (Page page : pages) {
-            String text = getTextFromHTMLContent(page.getContent());
-            HashMap<String, Integer> lemmasRanks = getLemmasAndTheirFrequenciesFromText(text);
-            for (String lemma : lemmasRanks.keySet()) {
-                if (!performingIndexing && !singlePageIndexing) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
-                Lemma lemmaEntity = getEntityLemmaFromStringLemma(lemmaEntities, site, lemma);
-                if (!lemmaEntities.contains(lemmaEntity)) {
-                    lemmaEntities.add(lemmaEntity);
+    private AnalyzedPage getAnalyzedPage(Page page) {
+        PageLemmas pageLemmas = getPageLemmasFromText(page.getText());
+        page.setTokenCount(pageLemmas.getTokenCount());
+        page.setTokenOffsets(VarIntCodec.encodeDeltas(pageLemmas.getTokenOffsets()));
+        return new AnalyzedPage(page, pageLemmas);
+    }
+
+    private void addNewPagesIndexingData(List<AnalyzedPage> pages, Site site) throws RuntimeException {
+        int newLemmasCount = registerNewLemmas(pages, site);
+        LemmaDictionary dictionary = lemmaDictionaryRegistry.getDictionary(site);
+        IndexRows indexRows = new IndexRows(pages.size() * 100);
+        for (AnalyzedPage analyzedPage : pages) {
+            int pageId = analyzedPage.getPage().getId();
+            PageLemmas pageLemmas = analyzedPage.getLemmas();
+            for (int i = 0; i < pageLemmas.size(); i++) {
+                int lemmaId = dictionary.addOccurrence(pageLemmas.getLemmas()[i]);
+                if (lemmaId != 0) {
+                    indexRows.add(pageId, lemmaId, pageLemmas.getCounts()[i],
+                            VarIntCodec.encodeDeltas(pageLemmas.getPositions()[i]));
                 }
-                Index index = getNewIndex(page, lemmaEntity, lemmasRanks.get(lemma));
-                indexEntities.add(index);
             }
         }
-        lemmaRepository.saveAll(lemmaEntities);
-        indexRepository.saveAll(indexEntities);
-    }
-
-    public static String getTextFromHTMLContent(String htmlContent) {
-        return HtmlParser.getTextFromHTMLContent(htmlContent);
+        lemmaDictionaryRegistry.flushFrequencies(site);
+        bulkInsertRepository.insertIndexes(indexRows);
+        indexCounters.addPages(site.getId(), pages.size());
+        indexCounters.addLemmas(site.getId(), newLemmasCount);
+        indexCounters.addIndexes(site.getId(), indexRows.size());
+        pages.forEach(page -> invertedIndex.addPage(site.getId(), page.getPage().getId(), page.getLemmas()));
     }
 
-    private HashMap<String, Integer> getLemmasAndTheirFrequenciesFromText(String content) {
-        return lemmaFinder.getLemmasAndTheirFrequencies(content);
-    }
-
-    private Lemma getEntityLemmaFromStringLemma(List<Lemma> lemmaEntities, Site site, String lemma) {
-        Lemma lemmaEntity = new Lemma();
-        Optional<Lemma> lemmaOptional = lemmaEntities.stream()
-                .filter(l -> l.getLemma().equals(lemma)).findAny();
-
-        if (lemmaOptional.isPresent()) {
-            lemmaEntity = lemmaOptional.get();
-        } else {
-            lemmaEntity.setLemma(lemma);
-            lemmaEntity.setSite(site);
-        }
-        lemmaEntity.setFrequency(lemmaEntity.getFrequency() + 1);
-        return lemmaEntity;
+    private int registerNewLemmas(List<AnalyzedPage> pages, Site site) {
+        Set<String> lemmas = new HashSet<>();
+        pages.forEach(page -> lemmas.addAll(Arrays.asList(page.getLemmas().getLemmas())));
+        return lemmaDictionaryRegistry.registerLemmas(site, lemmas);
     }
 
-    private Index getNewIndex(Page page, Lemma lemma, float rank) {
-        Index index = new Index();
-        index.setPage(page);
-        index.setLemma(lemma);
-        index.setRank(rank);
-        return index;
+    private PageLemmas getPageLemmasFromText(String text) {
+        return lemmaFinder.getPageLemmas(text);
     }
 
     public void updateStatusAndStatusTime(Site site, SiteStatus status) {
@@ -335,21 +311,25 @@ public class IndexingServiceImpl implements IndexingService {
             return response;
         }
         logger.info("Stop indexing");
-        stopThreads();
         performingIndexing = false;
+        stopThreads();
         response.setResult(true);
 
         return response;
     }
 
     private void stopThreads() {
-        forkJoinPool.shutdownNow();
+        pipelines.forEach(CrawlPipeline::stop);
         executor.shutdownNow();
     }
 
     @Override
     public IndexingResponse indexPage(String url) {
         IndexingResponse response = new IndexingResponse();
+        String canonicalUrl = UrlCanonicalizer.canonicalize(url);
+        if (canonicalUrl != null) {
+            url = canonicalUrl;
+        }
         Optional<Site> optionalSite = getPageSiteByUrl(url);
         if (!optionalSite.isPresent()) {
             response.setResult(false);
@@ -370,7 +350,7 @@ public class IndexingServiceImpl implements IndexingService {
         if (!url.isBlank()) {
             return sitesList.getSites()
                     .stream()
-                    .filter(site -> url.contains(site.getUrl()))
+                    .filter(site -> url.contains(UrlCanonicalizer.canonicalizeSiteUrl(site.getUrl())))
                     .findAny();
         }
         return Optional.empty();
@@ -384,6 +364,8 @@ public class IndexingServiceImpl implements IndexingService {
             findAndDeleteOldPageIndexingData(url, site);
             Page page = getNewPage(url, site);
             addNewPageIndexingData(page);
+            searchResultCache.invalidateSite(site.getUrl());
+            suggestionDictionary.markSiteChanged(site);
         } catch (Exception e) {
             logger.error("Error index page " + url + ": " + e.getMessage());
             response.setError(e.getMessage());
@@ -405,44 +387,46 @@ public class IndexingServiceImpl implements IndexingService {
     }
 
     private void findAndDeleteOldPageIndexingData(String url, Site site) {
-        String path = url.replaceFirst(site.getUrl(), "");
-        Optional<Page> optionalPage = pageRepository.findByPathAndSite(path, site);
+        String path = getPagePath(url, site);
+        Optional<Page> optionalPage = pageRepository.findByPathAndSite(path, site)
+                .or(() -> pageRepository.findByPathAndSite(path + "/", site));
         if (optionalPage.isPresent()) {
             Page page = optionalPage.get();
-            List<Lemma> lemmasList = indexRepository.findLemmasByPageId(page);
+            List<String> lemmas = indexRepository.findLemmasByPageId(page).stream().map(Lemma::getLemma).toList();
             pageRepository.delete(page);
-            updateDeleteOldLemmaEntities(lemmasList);
-        }
-    }
-
-    private void updateDeleteOldLemmaEntities(List<Lemma> lemmaEntities) {
-        List<Lemma> lemmasListToDelete = new ArrayList<>();
-        List<Lemma> lemmasListToUpdate = new ArrayList<>();
-        for (Lemma lemma : lemmaEntities) {
-            int frequency = lemma.getFrequency() - 1;
-            if (frequency == 0) {
-                lemmasListToDelete.add(lemma);
-                continue;
-            }
-            lemma.setFrequency(frequency);
-            lemmasListToUpdate.add(lemma);
-        }
-        if (!lemmasListToDelete.isEmpty()) {
-            lemmaRepository.deleteAll(lemmasListToDelete);
-        }
-        if (!lemmasListToUpdate.isEmpty()) {
-            lemmaRepository.saveAll(lemmasListToUpdate);
+            indexCounters.addPages(site.getId(), -1);
+            indexCounters.addIndexes(site.getId(), -lemmas.size());
+            invertedIndex.removePage(site.getId(), page.getId(), lemmas);
+            indexCounters.addLemmas(site.getId(), -lemmaDictionaryRegistry.removeOccurrences(site, lemmas));
         }
     }
 
     private void addNewPageIndexingData(Page page) {
+        AnalyzedPage analyzedPage = getAnalyzedPage(page);
         page = getNewPageDBEntity(page);
-        List<Page> pages = new ArrayList<>();
-        pages.add(page);
+        List<AnalyzedPage> pages = new ArrayList<>();
+        pages.add(new AnalyzedPage(page, analyzedPage.getLemmas()));
         addNewPagesIndexingData(pages, page.getSite());
     }
 
     private Page getNewPageDBEntity(Page page) {
         return pageRepository.save(page);
     }
+
+    private class SitePipelineStages implements PipelineStages {
+        @Override
+        public Page parse(String link, Document document, Site site) {
+            return getNewPage(link, document, site);
+        }
+
+        @Override
+        public AnalyzedPage analyze(Page page) {
+            return getAnalyzedPage(page);
+        }
+
+        @Override
+        public void persist(List<AnalyzedPage> pages, Site site) {
+            checkAndSavePagesToDB(pages, site);
+        }
+    }
 }
@@ -5,21 +5,33 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import searchengine.codec.VarIntCodec;
+import searchengine.config.SearchConfiguration;
 import searchengine.config.SitesList;
 import searchengine.dto.search.SearchData;
 import searchengine.dto.search.SearchRequest;
 import searchengine.dto.search.SearchResponse;
-import searchengine.dto.search.SnippetData;
 import searchengine.model.*;
 import searchengine.parsers.HtmlParser;
-import searchengine.parsers.LemmaFinder;
-import searchengine.repository.LemmaRepository;
 import searchengine.repository.PageRepository;
+import searchengine.repository.SearchJdbcRepository;
 import searchengine.repository.SiteRepository;
+import searchengine.search.FuzzyExpander;
+import searchengine.search.InvertedIndex;
+import searchengine.search.QueryParser;
+import searchengine.search.RankedPages;
+import searchengine.search.ScoredPages;
+import searchengine.search.SearchBackend;
+import searchengine.search.SearchCursor;
+import searchengine.search.SearchExecutor;
+import searchengine.search.SearchQuery;
+import searchengine.search.SearchResultCache;
+import searchengine.search.SnippetBuilder;
+import searchengine.search.SuggestionDictionary;
+import searchengine.search.TopKSelector;
 
-import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
 
 @Service
 @RequiredArgsConstructor
@@ -28,22 +40,15 @@ public class SearchServiceImpl implements SearchService {
     private final SiteRepository siteRepository;
     @Autowired
     private final PageRepository pageRepository;
-    @Autowired
-    private final LemmaRepository lemmaRepository;
+    private final SearchJdbcRepository searchJdbcRepository;
+    private final InvertedIndex invertedIndex;
+    private final SearchResultCache searchResultCache;
+    private final SearchExecutor searchExecutor;
+    private final SuggestionDictionary suggestionDictionary;
     private final SitesList sitesList;
-    private LemmaFinder lemmaFinder;
+    private final SearchConfiguration searchConfiguration;
+    private final QueryParser queryParser;
     private final Logger logger = LogManager.getLogger("indexingServiceLogger");
-    private static final int FREQUENCY_OCCURRENCE_MAX_PERCENT = 90;
-    private static final int MAX_SEARCH_RESULT_LENGTH = 200;
-    private int maxLengthOfSnippetPhrase = 0;
-
-    {
-        try {
-            lemmaFinder = LemmaFinder.getInstance();
-        } catch (IOException e) {
-            logger.error(e.getMessage());
-        }
-    }
 
     @Override
     public SearchResponse search(SearchRequest request)  {
@@ -51,25 +56,75 @@ public class SearchServiceImpl implements SearchService {
         if (!response.isResult()) {
             return response;
         }
+        SearchQuery query;
         try {
-            Set<String> lemmas = getLemmasFromWords(request.getQuery());
-            List<Site> sites = getSitesForSearch(request.getSiteUrl());
-            List<Lemma> lemmasEntities = getLemmasEntities(lemmas, sites);
-            if (lemmasEntities.isEmpty()) {
-                response.setCount(0);
-                response.setData(getSearchDataArray(new ArrayList<>(), lemmas, request));
-                return response;
-            }
-            lemmas = getLemmasFromLemmaEntities(lemmasEntities);
-            List<Page> matchingPages = getMatchingPages(lemmasEntities, lemmas.size(), sites);
-            response.setCount(matchingPages.size());
-            response.setData(getSearchDataArray(matchingPages, lemmas, request));
-        } catch (IOException exception) {
-            logger.error(exception.getMessage());
+            query = parseQuery(request);
+        } catch (IllegalArgumentException e) {
+            response.setResult(false);
+            response.setError("Запрос и каждая его часть после ИЛИ должны содержать слово без отрицания");
+            return response;
         }
+        SearchCursor cursor;
+        try {
+            cursor = getSearchCursor(query, request);
+        } catch (IllegalArgumentException e) {
+            response.setResult(false);
+            response.setError("Некорректный курсор продолжения выдачи");
+            return response;
+        }
+        int offset = cursor == null ? request.getOffset() : cursor.position();
+        return searchResultCache.get(query, request.getSiteUrl(), offset, request.getLimit(),
+                () -> getSearchResponse(query, request, offset, cursor, response));
+    }
+
+    private SearchResponse getSearchResponse(SearchQuery query, SearchRequest request, int offset,
+                                             SearchCursor cursor, SearchResponse response) {
+        String siteUrl = request.getSiteUrl();
+        List<Site> sites = getSitesForSearch(siteUrl);
+        RankedPages rankedPages = getRankedPages(query, sites, siteUrl, offset, request.getLimit(), cursor);
+        response.setCount(rankedPages.matchesCount());
+        response.setData(getSearchDataArray(rankedPages, query));
+        response.setCursor(getNextCursor(query, siteUrl, offset, rankedPages));
         return response;
     }
 
+    private SearchQuery parseQuery(SearchRequest request) {
+        SearchQuery query = queryParser.parse(request.getQuery());
+        boolean fuzzy = request.getFuzzy() == null ? searchConfiguration.isFuzzySearch() : request.getFuzzy();
+        return fuzzy ? query.toFuzzy() : query;
+    }
+
+    private SearchQuery getSiteQuery(SearchQuery query, Site site) {
+        if (!query.isFuzzy()) {
+            return query;
+        }
+        return FuzzyExpander.expand(query, suggestionDictionary.getVocabulary(site.getUrl()),
+                searchConfiguration.getFuzzyMaxDistance(), searchConfiguration.getFuzzyMaxExpansions());
+    }
+
+    private SearchCursor getSearchCursor(SearchQuery query, SearchRequest request) {
+        String cursor = request.getCursor();
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        SearchCursor searchCursor = SearchCursor.decode(cursor);
+        if (searchCursor.fingerprint() != SearchCursor.getFingerprint(query, request.getSiteUrl())) {
+            throw new IllegalArgumentException("Cursor belongs to another query");
+        }
+        return searchCursor;
+    }
+
+    private String getNextCursor(SearchQuery query, String siteUrl, int offset, RankedPages rankedPages) {
+        ScoredPages pages = rankedPages.pages();
+        int position = offset + pages.size();
+        if (pages.size() == 0 || position >= rankedPages.matchesCount()) {
+            return null;
+        }
+        int last = pages.size() - 1;
+        return new SearchCursor(SearchCursor.getFingerprint(query, siteUrl), pages.getScore(last),
+                pages.getPageId(last), position, rankedPages.maxScore()).encode();
+    }
+
     private SearchResponse getSearchResponseBySearchRequestCorrectness(SearchRequest request) {
         SearchResponse response = new SearchResponse();
         String errorMessage = getMessageAboutIncorrectSearchData(request);
@@ -99,10 +154,6 @@ public class SearchServiceImpl implements SearchService {
         return new String();
     }
 
-    private Set<String> getLemmasFromWords(String text) {
-        return lemmaFinder.getLemmasFromWords(text);
-    }
-
     private List<Site> getSitesForSearch(String siteUrl) {
         List<Site> sites = new ArrayList<>();
         if (siteUrl.equals("All")) {
@@ -116,269 +167,137 @@ public class SearchServiceImpl implements SearchService {
         return sites;
     }
 
-    private List<Lemma> getLemmasEntities(Set<String> lemmas, List<Site> sites) {
-        List<Lemma> lemmasEntities = getLemmasEntitiesBySiteInAndLemmaIn(lemmas, sites);
-        if (lemmasEntities.isEmpty() || lemmas.size() > lemmasEntities.size()) {
-            return new ArrayList<>();
+    private SearchData[] getSearchDataArray(RankedPages rankedPages, SearchQuery query) {
+        ScoredPages topPages = rankedPages.pages();
+        if (topPages.size() == 0) {
+            return new SearchData[0];
         }
-        lemmasEntities = excludeFrequentlyEncounteredLemmas(lemmas, lemmasEntities);
-        lemmasEntities = sortLemmasEntitiesByFrequency(lemmasEntities);
-        return lemmasEntities;
-    }
-
-    private List<Lemma> getLemmasEntitiesBySiteInAndLemmaIn(Set<String> lemmas, List<Site> sites) {
-        List<Lemma> lemmasEntities = lemmaRepository.findBySiteInAndLemmaIn(sites, lemmas);
-        return lemmasEntities;
-    }
-
-    private List<Lemma> excludeFrequentlyEncounteredLemmas(Set<String> lemmas, List<Lemma> lemmasEntities) {
-        if (lemmas.size() <= 1) {
-            return lemmasEntities;
+        float maxScore = rankedPages.maxScore();
+        List<Integer> pageIds = new ArrayList<>();
+        for (int i = 0; i < topPages.size(); i++) {
+            pageIds.add(topPages.getPageId(i));
         }
-        int allPagesCount = (int) pageRepository.count();
-        List<Lemma> lemmasEntitiesForDelete = lemmasEntities.stream()
-                .filter(lemmaEntity -> {
-                    int occurrencePercent = lemmaEntity.getFrequency()  * 100 / allPagesCount;
-                    return occurrencePercent > FREQUENCY_OCCURRENCE_MAX_PERCENT;
-                })
-                .toList();
-        lemmasEntities.removeAll(lemmasEntitiesForDelete);
-        return lemmasEntities;
-    }
-
-    private List<Lemma> sortLemmasEntitiesByFrequency(List<Lemma> lemmasEntities) {
-        lemmasEntities.sort(Comparator.comparing(l -> l.getFrequency()));
-        return lemmasEntities;
-    }
-
-    private SearchData[] getSearchDataArray(List<Page> pages, Set<String> lemmas, SearchRequest request) throws IOException {
-        int offset = request.getOffset();
-        int limit = request.getLimit();
-        List<SearchData> dataList = new ArrayList<>();
-        if (pages.isEmpty()) {
-            return dataList.toArray(new SearchData[dataList.size()]);
-        }
-        float maxAbsoluteRelevance = getMaxAbsoluteRelevance(pages);
-        pages.sort(Comparator.comparing(page -> page.getPath()));
-        for (int i = offset; i < limit + offset && i < pages.size(); i++) {
-            Page page = pages.get(i);
-            page.setRelevance(page.getAbsoluteRelevance() / maxAbsoluteRelevance);
-            SearchData searchData = getSearchData(page, lemmas);
-            dataList.add(searchData);
+        Map<Integer, Page> pagesById = new HashMap<>();
+        pageRepository.findAllById(pageIds).forEach(page -> pagesById.put(page.getId(), page));
+        Map<Integer, List<String>> siteLemmas = new HashMap<>();
+        boolean positionsFromDatabase = isServedFromDatabase(query);
+        List<Callable<SearchData>> tasks = new ArrayList<>();
+        for (int i = 0; i < topPages.size(); i++) {
+            Page page = pagesById.get(topPages.getPageId(i));
+            float relevance = topPages.getScore(i) / maxScore;
+            if (page != null) {
+                List<String> lemmas = siteLemmas.computeIfAbsent(page.getSite().getId(),
+                        siteId -> new ArrayList<>(getSiteQuery(query, page.getSite()).getLemmas()));
+                tasks.add(() -> getSearchData(page, lemmas, relevance, positionsFromDatabase));
+            }
         }
-        dataList.sort(SearchData::compareTo);
+        List<SearchData> dataList = searchExecutor.invokeAll(tasks);
         return dataList.toArray(new SearchData[dataList.size()]);
     }
 
-    private float getMaxAbsoluteRelevance(List<Page> pages) {
-        return pages.stream()
-                .map(page -> page.getAbsoluteRelevance())
-                .max(Float::compare)
-                .get();
-    }
-
-    private SearchData getSearchData(Page page, Set<String> lemmas) {
+    private SearchData getSearchData(Page page, List<String> lemmas, float relevance, boolean positionsFromDatabase) {
         Site site = page.getSite();
-        String text = getTextFromHTMLContent(page.getContent());
-        String title = HtmlParser.getTitleFromHTMLContent(page.getContent());
+        String text = getPageText(page);
+        String title = getPageTitle(page);
         SearchData searchData = new SearchData();
         searchData.setSite(site.getUrl());
         searchData.setSiteName(site.getName());
         searchData.setUri(page.getPath());
         searchData.setTitle((title.isEmpty() ? page.getPath() : title));
-        searchData.setSnippet(getSnippetText(lemmas, text));
-        searchData.setRelevance(page.getRelevance());
+        searchData.setSnippet(getSnippetText(page, lemmas, text, positionsFromDatabase));
+        searchData.setRelevance(relevance);
         return searchData;
     }
 
-    public static String getTextFromHTMLContent(String htmlContent) {
-        return HtmlParser.getTextFromHTMLContent(htmlContent);
-
-    }
-
-    private String getSnippetText(Set<String> lemmas, String text) {
-        setMaxLengthOfSnippetPhrase(lemmas.size());
-        HashMap<String, Integer> phrasesRelevanceMap = getPhrasesRelevanceMap(lemmas, text);
-        return getSnippetTextBuilder(phrasesRelevanceMap).toString();
-    }
-
-    private void setMaxLengthOfSnippetPhrase(int lemmasSize) {
-        if (lemmasSize == 0) {
-            return;
+    private String getPageText(Page page) {
+        if (page.getText() != null) {
+            return page.getText();
         }
-        maxLengthOfSnippetPhrase = MAX_SEARCH_RESULT_LENGTH / lemmasSize;
+        return HtmlParser.getTextFromHTMLContent(page.getContent());
     }
 
-    private HashMap<String, Integer> getPhrasesRelevanceMap(Set<String> lemmas, String text) {
-        List<String> wordsFromText = Arrays.asList(text.split("\\s"));
-        List<String> lemmasOfWordsFromText = lemmaFinder.getLemmasListFromWordsList(wordsFromText);
-        List<Integer> indexesOfWords = new ArrayList<>();
-        HashMap<String, Integer> phrasesRelevanceMap = new HashMap<>();
-        for (String lemma : lemmas) {
-            HashMap<String, Integer> currentLemmaPhraseRelevanceMap = new HashMap<>();
-            for (Integer indexOfWord : getIndexesOfWordsFromTextByLemma(lemma,  lemmasOfWordsFromText)) {
-                String allSearchResultPhrases = phrasesRelevanceMap.keySet().toString();
-                if (indexesOfWords.contains(indexOfWord) && allSearchResultPhrases.contains(wordsFromText.get(indexOfWord))) {
-                    continue;
-                }
-                List<Integer> indexesOfSnippetWords = getIndexesOfSnippetWordsByCurrentSearchWord(indexOfWord.intValue(), wordsFromText);
-                SnippetData snippetData = getSnippetData(wordsFromText, lemmasOfWordsFromText, indexesOfSnippetWords);
-                HashMap<String, Integer> snippetAndHisRelevance = getSnippetAndHisRelevance(snippetData, lemmas);
-                currentLemmaPhraseRelevanceMap.putAll(snippetAndHisRelevance);
-                indexesOfWords.addAll(indexesOfSnippetWords);
-            }
-            phrasesRelevanceMap = putTheMostRelevantSnippetPhraseToPhrasesRelevanceMap(currentLemmaPhraseRelevanceMap, phrasesRelevanceMap);
+    private String getPageTitle(Page page) {
+        if (page.getTitle() != null) {
+            return page.getTitle();
         }
-        return phrasesRelevanceMap;
+        return HtmlParser.getTitleFromHTMLContent(page.getContent());
     }
 
-    private Set<Integer> getIndexesOfWordsFromTextByLemma(String lemma, List<String> lemmasOfWordsFromText) {
-        Set<Integer> indexesOfWordsByLemma = new HashSet<>();
-        for (int i = 0; i < lemmasOfWordsFromText.size(); i++) {
-            String lemmaOfWords = lemmasOfWordsFromText.get(i);
-            if (lemmaOfWords.equals(lemma)) {
-                indexesOfWordsByLemma.add(i);
-            }
-        }
-        return indexesOfWordsByLemma;
+    private String getSnippetText(Page page, List<String> lemmas, String text, boolean positionsFromDatabase) {
+        int[] tokenOffsets = page.getText() == null ? new int[0] : VarIntCodec.decodeDeltas(page.getTokenOffsets());
+        int[][] positions = positionsFromDatabase ? searchJdbcRepository.findPositions(page.getId(), lemmas)
+                : invertedIndex.getPositions(page.getSite().getId(), page.getId(), lemmas);
+        return SnippetBuilder.build(text, tokenOffsets, positions);
     }
 
-    private List<Integer> getIndexesOfSnippetWordsByCurrentSearchWord(int searchWordIndex, List<String> wordsFromText) {
-        List<Integer> indexesOfSnippetWords = new ArrayList<>();
-        int lengthOfSnippetPhrase = wordsFromText.get(searchWordIndex).length();
-        indexesOfSnippetWords.add(searchWordIndex);
-        for (int i = 1; lengthOfSnippetPhrase <= maxLengthOfSnippetPhrase; i++) {
-            int indexOfPreviousWord = searchWordIndex - i;
-            if (indexOfPreviousWord >= 0) {
-                indexesOfSnippetWords.add(indexOfPreviousWord);
-                lengthOfSnippetPhrase += wordsFromText.get(indexOfPreviousWord).length();
-            }
-            int indexOfNextWord = searchWordIndex + i;
-            if (indexOfNextWord < wordsFromText.size()) {
-                indexesOfSnippetWords.add(indexOfNextWord);
-                lengthOfSnippetPhrase += wordsFromText.get(indexOfNextWord).length();
-            }
+    private RankedPages getRankedPages(SearchQuery query, List<Site> sites, String siteUrl, int offset, int limit,
+                                       SearchCursor cursor) {
+        if (query.isEmpty() || sites.isEmpty() || limit <= 0) {
+            return new RankedPages(new ScoredPages(0), 0, 0);
         }
-        indexesOfSnippetWords.sort(Comparator.comparing(index -> index));
-        return indexesOfSnippetWords;
-    }
-
-    private SnippetData getSnippetData(List<String> wordsFromText, List<String> lemmasOfWordsFromText, List<Integer> indexesOfSnippetWords) {
-        SnippetData snippetData = new SnippetData();
-        snippetData.setWordsFromText(wordsFromText);
-        snippetData.setLemmasOfWordsFromText(lemmasOfWordsFromText);
-        snippetData.setIndexesOfSnippetWords(indexesOfSnippetWords);
-        return snippetData;
-    }
-
-    private HashMap<String, Integer> getSnippetAndHisRelevance(SnippetData snippetData, Set<String> lemmas) {
-        HashMap<String, Integer> relevanceMap = new HashMap<>();
-        StringBuilder builder = new StringBuilder();
-        int phraseRelevance = 0;
-        Set<String> lemmasFromPhrase = new HashSet<>();
-        for (int index : snippetData.getIndexesOfSnippetWords()) {
-            String word = snippetData.getWordsFromText().get(index);
-            String lemmaOfWord = snippetData.getLemmasOfWordsFromText().get(index);
-            if (lemmas.contains(lemmaOfWord) && !lemmasFromPhrase.contains(lemmaOfWord)) {
-                word = boldWord(word);
-                phraseRelevance++;
-                lemmasFromPhrase.add(lemmaOfWord);
-            }
-            builder.append(word + " ");
+        RankedPages snapshot = searchResultCache.getSnapshot(query, siteUrl);
+        if (snapshot != null && (snapshot.pages().size() >= offset + limit
+                || snapshot.pages().size() == snapshot.matchesCount())) {
+            return getSlice(snapshot, offset, limit);
         }
-        builder.append("...");
-        relevanceMap.put(builder.toString(), phraseRelevance);
-        return relevanceMap;
-    }
-
-    private HashMap<String, Integer> putTheMostRelevantSnippetPhraseToPhrasesRelevanceMap(HashMap<String, Integer> currentLemmaPhraseRelevanceMap,
-                                                                                          HashMap<String, Integer> phrasesRelevanceMap) {
-        for (String snippetPhrase : getSnippetPhrases(currentLemmaPhraseRelevanceMap)) {
-            phrasesRelevanceMap.put(snippetPhrase, currentLemmaPhraseRelevanceMap.get(snippetPhrase));
-            break;
+        boolean sqlBackend = isServedFromDatabase(query);
+        if (sqlBackend && (offset > 0 || cursor != null)) {
+            return getRankedPagesFromDatabase(query, sites, offset, limit);
         }
-        return phrasesRelevanceMap;
-    }
-
-    private String boldWord(String word) {
-        return "<b>" + word + "</b>";
-    }
-
-    private StringBuilder getSnippetTextBuilder(HashMap<String, Integer> phrasesRelevanceMap) {
-        StringBuilder resultTextBuilder = new StringBuilder();
-        Set<String> phrases = getSnippetPhrases(phrasesRelevanceMap);
-        for (String phrase : phrases) {
-            resultTextBuilder.append(phrase);
-            if (resultTextBuilder.length() >= MAX_SEARCH_RESULT_LENGTH) {
-                break;
-            }
+        if (cursor != null) {
+            RankedPages nextPages = getMatchingPages(query, sites, limit, cursor);
+            return new RankedPages(nextPages.pages(), nextPages.matchesCount(), cursor.maxScore());
         }
-        return resultTextBuilder;
-    }
-
-    private Set<String> getSnippetPhrases(HashMap<String, Integer> phrasesRelevanceMap) {
-        Set<String> phrases = phrasesRelevanceMap.entrySet()
-                .stream()
-                .sorted(Collections.reverseOrder(Map.Entry.comparingByValue()))
-                .collect(Collectors.toMap(Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, e2) -> e1,
-                        LinkedHashMap::new))
-                .keySet();
-        return phrases;
+        int depth = Math.max(offset + limit, searchConfiguration.getSnapshotDepth());
+        long generation = searchResultCache.getGeneration(siteUrl);
+        snapshot = sqlBackend ? getRankedPagesFromDatabase(query, sites, 0, depth)
+                : getMatchingPages(query, sites, depth, null);
+        searchResultCache.putSnapshot(query, siteUrl, generation, snapshot);
+        return getSlice(snapshot, offset, limit);
     }
 
-    private Set<String> getLemmasFromLemmaEntities(List<Lemma> lemmaEntities) {
-        return lemmaEntities.stream()
-                .map(lE -> lE.getLemma())
-                .collect(Collectors.toSet());
+    private boolean isServedFromDatabase(SearchQuery query) {
+        return searchConfiguration.getBackend() == SearchBackend.SQL && query.getPhrases().isEmpty()
+                && !query.isBoolean() && !query.isFuzzy();
     }
 
-    private List<Page> getMatchingPages(List<Lemma> lemmaEntities, int lemmasSize, List<Site> sites) {
-        List<Page> matchingPages = new ArrayList<>();
-        for (Site site : sites) {
-            List<Lemma> siteLemmasEntities = lemmaEntities.stream().filter(l -> l.getSite().equals(site)).toList();
-            if (siteLemmasEntities.isEmpty() || lemmasSize > siteLemmasEntities.size()) {
-                continue;
-            }
-            List<Page> firstLemmaPages = getFirstLemmaPages(siteLemmasEntities.get(0));
-            HashMap<Page, Integer> pagesOccurrenceInLemmas = getPagesOccurrenceInLemmas(siteLemmasEntities, firstLemmaPages);
-
-            firstLemmaPages.stream()
-                    .filter(page -> pagesOccurrenceInLemmas.get(page) == siteLemmasEntities.size())
-                    .forEach(page -> matchingPages.add(page));
-
-        }
-        return matchingPages;
+    private RankedPages getSlice(RankedPages rankedPages, int offset, int limit) {
+        ScoredPages pages = rankedPages.pages();
+        int from = Math.min(offset, pages.size());
+        int to = Math.min(offset + limit, pages.size());
+        return new RankedPages(pages.subList(from, to), rankedPages.matchesCount(), rankedPages.maxScore());
     }
 
-    private List<Page> getFirstLemmaPages(Lemma firstLemma) {
-        List<Page> firstLemmaPages = new ArrayList<>();
-        firstLemma.getIndexes().forEach(index -> {
-            firstLemmaPages.add(index.getPage());
+    private RankedPages getRankedPagesFromDatabase(SearchQuery query, List<Site> sites, int offset, int limit) {
+        List<Integer> siteIds = sites.stream().map(Site::getId).toList();
+        Set<String> lemmas = query.getLemmas();
+        ScoredPages pages = new ScoredPages(limit);
+        int[] matchesCount = new int[1];
+        float[] maxScore = new float[1];
+        searchJdbcRepository.forEachTopPage(siteIds, lemmas, offset, limit, (pageId, score, count, max) -> {
+            pages.add(pageId, score);
+            matchesCount[0] = count;
+            maxScore[0] = max;
         });
-        return firstLemmaPages;
+        if (pages.size() == 0 && offset > 0) {
+            matchesCount[0] = searchJdbcRepository.countPages(siteIds, lemmas);
+        }
+        return new RankedPages(pages, matchesCount[0], maxScore[0]);
     }
 
-    private HashMap<Page, Integer> getPagesOccurrenceInLemmas(List<Lemma> lemmaEntities, List<Page> firstLemmaPages) {
-        HashMap<Page, Integer> pagesOccurrenceInLemmas = new HashMap<>();
-        for (Lemma lemmaEntity : lemmaEntities) {
-            lemmaEntity.getIndexes().stream()
-                    .filter(index -> firstLemmaPages.contains(index.getPage()))
-                    .map(index -> {
-                        Page page = index.getPage();
-                        float absoluteRelevance = page.getAbsoluteRelevance();
-                        page.setAbsoluteRelevance(absoluteRelevance + index.getRank());
-                        return page;
-                    })
-                    .forEach(page -> {
-                        if (pagesOccurrenceInLemmas.containsKey(page)) {
-                            pagesOccurrenceInLemmas.put(page, pagesOccurrenceInLemmas.get(page) + 1);
-                        } else {
-                            pagesOccurrenceInLemmas.put(page, 1);
-                        }
-                    });
+    private RankedPages getMatchingPages(SearchQuery query, List<Site> sites, int count, SearchCursor after) {
+        List<Callable<RankedPages>> tasks = new ArrayList<>();
+        for (Site site : sites) {
+            tasks.add(() -> invertedIndex.matchTop(site.getId(), getSiteQuery(query, site), count, after));
+        }
+        TopKSelector selector = new TopKSelector(count);
+        int matchesCount = 0;
+        float maxScore = 0;
+        for (RankedPages sitePages : searchExecutor.invokeAll(tasks)) {
+            selector.offerAll(sitePages.pages());
+            matchesCount += sitePages.matchesCount();
+            maxScore = Math.max(maxScore, sitePages.maxScore());
         }
-        return pagesOccurrenceInLemmas;
+        return new RankedPages(selector.toSortedPages(), matchesCount, maxScore);
     }
 }
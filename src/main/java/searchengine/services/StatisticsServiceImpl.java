@@ -1,30 +1,40 @@
 package searchengine.services;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import searchengine.dto.statistics.CacheStatisticsItem;
 import searchengine.dto.statistics.DetailedStatisticsItem;
 import searchengine.dto.statistics.StatisticsData;
 import searchengine.dto.statistics.StatisticsResponse;
 import searchengine.dto.statistics.TotalStatistics;
 import searchengine.model.*;
-import searchengine.repository.LemmaRepository;
-import searchengine.repository.PageRepository;
+import searchengine.parsers.LemmaFinder;
 import searchengine.repository.SiteRepository;
+import searchengine.search.SearchResultCache;
+import searchengine.statistics.IndexCounters;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
 
 @Service
 @RequiredArgsConstructor
 public class StatisticsServiceImpl implements StatisticsService {
     @Autowired
     private final SiteRepository siteRepository;
-    @Autowired
-    private final PageRepository pageRepository;
-    @Autowired
-    private final LemmaRepository lemmaRepository;
+    private final IndexCounters indexCounters;
+    private final IndexingService indexingService;
+    private final LemmaFinder lemmaFinder;
+    private final SearchResultCache searchResultCache;
+    @Value("${statistics-settings.sites-cache-millis:1000}")
+    private long sitesCacheMillis;
+    private volatile SitesSnapshot sitesSnapshot;
 
     @Override
     public StatisticsResponse getStatistics() {
@@ -34,20 +44,52 @@ public class StatisticsServiceImpl implements StatisticsService {
         return response;
     }
 
+    @Scheduled(initialDelayString = "${statistics-settings.reconcile-interval-seconds:600}",
+            fixedDelayString = "${statistics-settings.reconcile-interval-seconds:600}", timeUnit = TimeUnit.SECONDS)
+    public void reconcileCounters() {
+        if (!indexingService.isIndexing()) {
+            indexCounters.reload();
+        }
+    }
+
     private StatisticsData getStatisticsData() {
         StatisticsData data = new StatisticsData();
-        List<Site> sites = (List<Site>) siteRepository.findAll();
+        List<Site> sites = getSites();
         data.setTotal(getTotalStatistics(sites));
         data.setDetailed(getDetailedStatistics(sites));
+        data.setCaches(getCacheStatistics());
         return data;
     }
 
+    /**
+     * Список сайтов перечитывается из БД не чаще раза в sites-cache-millis,
+     * чтобы частые запросы статистики во время индексации не нагружали БД.
+     */
+    private List<Site> getSites() {
+        SitesSnapshot snapshot = sitesSnapshot;
+        long now = System.nanoTime();
+        if (snapshot == null || now - snapshot.loadedNanos() > TimeUnit.MILLISECONDS.toNanos(sitesCacheMillis)) {
+            snapshot = new SitesSnapshot(StreamSupport.stream(siteRepository.findAll().spliterator(), false).toList(), now);
+            sitesSnapshot = snapshot;
+        }
+        return snapshot.sites();
+    }
+
     private TotalStatistics getTotalStatistics(List<Site> sites) {
         TotalStatistics total = new TotalStatistics();
         total.setSites(sites.size());
-        total.setIndexing(true);
-        total.setPages((int) pageRepository.count());
-        total.setLemmas((int) lemmaRepository.count());
+        total.setIndexing(indexingService.isIndexing());
+        long pages = 0;
+        long lemmas = 0;
+        long indexes = 0;
+        for (Site site : sites) {
+            pages += indexCounters.getPages(site.getId());
+            lemmas += indexCounters.getLemmas(site.getId());
+            indexes += indexCounters.getIndexes(site.getId());
+        }
+        total.setPages(pages);
+        total.setLemmas(lemmas);
+        total.setIndexes(indexes);
         return total;
     }
 
@@ -59,8 +101,9 @@ public class StatisticsServiceImpl implements StatisticsService {
             long millis = timestamp.getTime();
             item.setName(site.getName());
             item.setUrl(site.getUrl());
-            item.setPages(pageRepository.countBySite(site));
-            item.setLemmas(lemmaRepository.countBySite(site));
+            item.setPages(indexCounters.getPages(site.getId()));
+            item.setLemmas(indexCounters.getLemmas(site.getId()));
+            item.setIndexes(indexCounters.getIndexes(site.getId()));
             item.setStatus(site.getStatus().toString());
             item.setError(site.getLastError());
             item.setStatusTime(millis);
@@ -68,4 +111,25 @@ public class StatisticsServiceImpl implements StatisticsService {
         }
         return detailed;
     }
+
+    private List<CacheStatisticsItem> getCacheStatistics() {
+        List<CacheStatisticsItem> caches = new ArrayList<>();
+        caches.add(getCacheStatisticsItem("morphology", lemmaFinder.getCacheSize(), lemmaFinder.getCacheStats()));
+        caches.add(getCacheStatisticsItem("search", searchResultCache.getSize(), searchResultCache.getStats()));
+        return caches;
+    }
+
+    private CacheStatisticsItem getCacheStatisticsItem(String name, long size, CacheStats stats) {
+        CacheStatisticsItem item = new CacheStatisticsItem();
+        item.setName(name);
+        item.setSize(size);
+        item.setHits(stats.hitCount());
+        item.setMisses(stats.missCount());
+        item.setEvictions(stats.evictionCount());
+        item.setHitRate(stats.hitRate());
+        return item;
+    }
+
+    private record SitesSnapshot(List<Site> sites, long loadedNanos) {
+    }
 }
@@ -0,0 +1,40 @@
+package searchengine.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import searchengine.config.SearchConfiguration;
+import searchengine.config.SitesList;
+import searchengine.dto.suggest.SuggestResponse;
+import searchengine.search.SuggestionDictionary;
+
+import java.util.ArrayList;
+import java.util.Locale;
+
+@Service
+@RequiredArgsConstructor
+public class SuggestServiceImpl implements SuggestService {
+    private final SuggestionDictionary suggestionDictionary;
+    private final SitesList sitesList;
+    private final SearchConfiguration searchConfiguration;
+
+    @Override
+    public SuggestResponse suggest(String prefix, String siteUrl, int limit) {
+        SuggestResponse response = new SuggestResponse();
+        boolean isInSitesList = sitesList.getSites().stream()
+                .anyMatch(site -> site.getUrl().equals(siteUrl));
+        if (!siteUrl.equals("All") && !isInSitesList) {
+            response.setResult(false);
+            response.setError("Указанная страница не найдена");
+            return response;
+        }
+        response.setResult(true);
+        String normalizedPrefix = prefix.strip().toLowerCase(Locale.ROOT);
+        int suggestionsLimit = Math.min(limit, searchConfiguration.getSuggestMaxLimit());
+        if (normalizedPrefix.isEmpty() || suggestionsLimit <= 0) {
+            response.setSuggestions(new ArrayList<>());
+            return response;
+        }
+        response.setSuggestions(suggestionDictionary.suggest(siteUrl, normalizedPrefix, suggestionsLimit));
+        return response;
+    }
+}
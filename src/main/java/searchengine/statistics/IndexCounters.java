@@ -0,0 +1,103 @@
+package searchengine.statistics;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.stereotype.Component;
+import searchengine.repository.StatisticsJdbcRepository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Число страниц, лемм и строк индекса по сайтам в памяти. Счётчики загружаются из БД при старте,
+ * изменяются индексацией вместе с записью строк и периодически сверяются с БД,
+ * так что статистика отдаётся без запросов COUNT к большим таблицам.
+ * Сверка заменяет счётчик значением из БД сравнением с обменом против значения, прочитанного
+ * до запросов COUNT: если за время запросов индексация изменила счётчик, он остаётся
+ * как есть до следующей сверки, и её приращения не теряются.
+ */
+@Component
+@RequiredArgsConstructor
+public class IndexCounters {
+    private final StatisticsJdbcRepository statisticsJdbcRepository;
+    private final Map<Integer, SiteCounters> sites = new ConcurrentHashMap<>();
+    private final Logger logger = LogManager.getLogger("indexingServiceLogger");
+
+    @PostConstruct
+    public synchronized void reload() {
+        long startTime = System.nanoTime();
+        Map<Integer, long[]> expected = new HashMap<>();
+        sites.forEach((siteId, counters) -> expected.put(siteId, counters.get()));
+        Map<Integer, Long> pages = statisticsJdbcRepository.countPagesBySite();
+        Map<Integer, Long> lemmas = statisticsJdbcRepository.countLemmasBySite();
+        Map<Integer, Long> indexes = statisticsJdbcRepository.countIndexesBySite();
+        Set<Integer> siteIds = new HashSet<>(expected.keySet());
+        siteIds.addAll(pages.keySet());
+        siteIds.addAll(lemmas.keySet());
+        siteIds.addAll(indexes.keySet());
+        int changedSites = 0;
+        for (int siteId : siteIds) {
+            SiteCounters counters = getSiteCounters(siteId);
+            long[] values = expected.getOrDefault(siteId, new long[3]);
+            boolean reloaded = counters.pages.compareAndSet(values[0], pages.getOrDefault(siteId, 0L));
+            reloaded &= counters.lemmas.compareAndSet(values[1], lemmas.getOrDefault(siteId, 0L));
+            reloaded &= counters.indexes.compareAndSet(values[2], indexes.getOrDefault(siteId, 0L));
+            if (!reloaded) {
+                changedSites++;
+            }
+        }
+        logger.info("Index counters loaded for " + siteIds.size() + " sites in "
+                + (System.nanoTime() - startTime) / 1_000_000 + " ms, changed during reload: " + changedSites);
+    }
+
+    public void removeSite(int siteId) {
+        sites.remove(siteId);
+    }
+
+    public void addPages(int siteId, long delta) {
+        getSiteCounters(siteId).pages.addAndGet(delta);
+    }
+
+    public void addLemmas(int siteId, long delta) {
+        getSiteCounters(siteId).lemmas.addAndGet(delta);
+    }
+
+    public void addIndexes(int siteId, long delta) {
+        getSiteCounters(siteId).indexes.addAndGet(delta);
+    }
+
+    public long getPages(int siteId) {
+        SiteCounters counters = sites.get(siteId);
+        return counters == null ? 0 : counters.pages.get();
+    }
+
+    public long getLemmas(int siteId) {
+        SiteCounters counters = sites.get(siteId);
+        return counters == null ? 0 : counters.lemmas.get();
+    }
+
+    public long getIndexes(int siteId) {
+        SiteCounters counters = sites.get(siteId);
+        return counters == null ? 0 : counters.indexes.get();
+    }
+
+    private SiteCounters getSiteCounters(int siteId) {
+        return sites.computeIfAbsent(siteId, id -> new SiteCounters());
+    }
+
+    private static class SiteCounters {
+        private final AtomicLong pages = new AtomicLong();
+        private final AtomicLong lemmas = new AtomicLong();
+        private final AtomicLong indexes = new AtomicLong();
+
+        private long[] get() {
+            return new long[]{pages.get(), lemmas.get(), indexes.get()};
+        }
+    }
+}
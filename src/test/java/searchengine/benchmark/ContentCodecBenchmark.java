@@ -0,0 +1,72 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import searchengine.codec.ContentCodec;
+import searchengine.codec.ContentCodecs;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Хранение HTML страницы кодеком: время кодирования и декодирования одной страницы.
+ * encode суммирует исходные и хранимые байты во вспомогательных счётчиках sourceBytes
+ * и storedBytes; их отношение - степень сжатия кодека.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentCodecBenchmark {
+    private static final String[] WORDS = {"поисковый", "движок", "обходит", "страницы", "сайтов", "индекс",
+            "быстрого", "поиска", "запросам", "пользователей", "леммы", "хранятся", "базе", "данных", "позициями",
+            "ранжирование", "учитывает", "частоту", "каталог", "товаров", "доставка", "оплата", "контакты"};
+    @Param({"plain", "deflate"})
+    private String codecName;
+    @Param({"2000"})
+    private int paragraphsCount;
+    private ContentCodec codec;
+    private String content;
+    private int contentBytes;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codec = ContentCodecs.getByName(codecName);
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder("<html><head><title>Каталог</title></head><body>");
+        for (int i = 0; i < paragraphsCount; i++) {
+            builder.append("<div class=\"item-").append(random.nextInt(1000)).append("\"><a href=\"/catalog/")
+                    .append(random.nextInt(100_000)).append("\">");
+            for (int j = 0; j < 8; j++) {
+                builder.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            builder.append("</a></div>\n");
+        }
+        content = builder.append("</body></html>").toString();
+        contentBytes = content.getBytes(StandardCharsets.UTF_8).length;
+        encoded = codec.encode(content);
+    }
+
+    @Benchmark
+    public byte[] encode(StoredSize storedSize) {
+        byte[] data = codec.encode(content);
+        storedSize.sourceBytes += contentBytes;
+        storedSize.storedBytes += data.length;
+        return data;
+    }
+
+    @Benchmark
+    public String decode() {
+        return codec.decode(encoded);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class StoredSize {
+        public long sourceBytes;
+        public long storedBytes;
+    }
+}
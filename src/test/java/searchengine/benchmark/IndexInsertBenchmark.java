@@ -0,0 +1,113 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись строк индекса в MySQL: пакет JdbcTemplate.batchUpdate, который драйвер
+ * с rewriteBatchedStatements=true склеивает в многострочные INSERT (как в BulkInsertRepository),
+ * против построчных INSERT в одной транзакции - так пишет saveAll для сущностей
+ * с GenerationType.IDENTITY, при котором Hibernate отключает пакетную запись.
+ * Нужна запущенная MySQL; подключение задаётся свойствами benchmark.jdbc-url,
+ * benchmark.username и benchmark.password, строки пишутся во временную таблицу benchmark_search_index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndexInsertBenchmark {
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS benchmark_search_index ("
+            + "id INT AUTO_INCREMENT PRIMARY KEY, page_id INT NOT NULL, lemma_id INT NOT NULL, "
+            + "lemma_rank FLOAT NOT NULL, positions MEDIUMBLOB)";
+    private static final String TRUNCATE_TABLE_SQL = "TRUNCATE TABLE benchmark_search_index";
+    private static final String DROP_TABLE_SQL = "DROP TABLE IF EXISTS benchmark_search_index";
+    private static final String INSERT_SQL =
+            "INSERT INTO benchmark_search_index (page_id, lemma_id, lemma_rank, positions) VALUES (?, ?, ?, ?)";
+    @Param({"1000"})
+    private int rowsCount;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private int[] lemmaIds;
+    private float[] ranks;
+    private byte[][] positions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("benchmark.jdbc-url", "jdbc:mysql://localhost:3306/search_engine"
+                        + "?useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true"),
+                System.getProperty("benchmark.username", "root"),
+                System.getProperty("benchmark.password", ""), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        lemmaIds = new int[rowsCount];
+        ranks = new float[rowsCount];
+        positions = new byte[rowsCount][];
+        for (int i = 0; i < rowsCount; i++) {
+            lemmaIds[i] = random.nextInt(1, 100_000);
+            ranks[i] = random.nextInt(1, 20);
+            positions[i] = new byte[random.nextInt(1, 16)];
+            random.nextBytes(positions[i]);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute(TRUNCATE_TABLE_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute(DROP_TABLE_SQL);
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public int[] jdbcBatch() {
+        return transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL,
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        setRow(statement, i);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rowsCount;
+                    }
+                }));
+    }
+
+    @Benchmark
+    public int rowByRow() {
+        return transactionTemplate.execute(status -> {
+            int inserted = 0;
+            for (int i = 0; i < rowsCount; i++) {
+                int row = i;
+                inserted += jdbcTemplate.update(INSERT_SQL, statement -> setRow(statement, row));
+            }
+            return inserted;
+        });
+    }
+
+    private void setRow(PreparedStatement statement, int row) throws SQLException {
+        statement.setInt(1, row);
+        statement.setInt(2, lemmaIds[row]);
+        statement.setFloat(3, ranks[row]);
+        statement.setBytes(4, positions[row]);
+    }
+}
@@ -0,0 +1,68 @@
+package searchengine.benchmark;
+
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.openjdk.jmh.annotations.*;
+import searchengine.parsers.LemmaFinder;
+import searchengine.parsers.PageLemmas;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Разбор текста страницы на леммы: однопроходный {@link LemmaFinder#getPageLemmas} против прежней схемы
+ * с регулярным выражением, строкой на каждое слово и HashMap частот. Нормальные формы в обоих случаях
+ * берутся из прогретого кэша LemmaFinder, так что сравнивается сам разбор.
+ * Выделение памяти на операцию смотрится профилировщиком: -prof gc (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LemmaFinderBenchmark {
+    private static final Pattern RUSSIAN_WORD = Pattern.compile("[А-Яа-я]+");
+    private static final String[] WORDS = {"Поисковый", "движок", "обходит", "страницы", "сайтов", "и", "строит",
+            "индекс", "для", "быстрого", "поиска", "по", "запросам", "пользователей", "леммы", "слов", "хранятся",
+            "в", "базе", "данных", "вместе", "с", "позициями", "на", "странице", "Ранжирование", "учитывает",
+            "частоту", "лемм"};
+    @Param({"2000"})
+    private int wordsCount;
+    private LemmaFinder lemmaFinder;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        lemmaFinder = new LemmaFinder(new RussianLuceneMorphology(), 100_000);
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < wordsCount; i++) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(i % 12 == 11 ? ". " : " ");
+        }
+        text = builder.toString();
+        lemmaFinder.getPageLemmas(text);
+    }
+
+    @Benchmark
+    public PageLemmas singlePass() {
+        return lemmaFinder.getPageLemmas(text);
+    }
+
+    @Benchmark
+    public Map<String, Integer> regexPerWord() {
+        Map<String, Integer> lemmaCounts = new HashMap<>();
+        Matcher matcher = RUSSIAN_WORD.matcher(text);
+        while (matcher.find()) {
+            String normalForm = lemmaFinder.getNormalFormOfWord(matcher.group());
+            if (!normalForm.isBlank()) {
+                lemmaCounts.merge(normalForm, 1, Integer::sum);
+            }
+        }
+        return lemmaCounts;
+    }
+}
@@ -0,0 +1,156 @@
+package searchengine.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+import searchengine.config.PipelineConfiguration;
+import searchengine.config.PolitenessConfiguration;
+import searchengine.config.SearchConfiguration;
+import searchengine.crawler.FetchCallback;
+import searchengine.crawler.FetchMode;
+import searchengine.crawler.PageFetcher;
+import searchengine.crawler.PolitenessScheduler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пропускная способность загрузки страниц с локальных заглушек-серверов, отвечающих через responseLatencyMillis.
+ * Одна операция - загрузка PAGES_COUNT страниц, равномерно распределённых по hostsCount хостам;
+ * запросы к одному хосту во всех схемах стартуют не чаще, чем раз в delayMillis.
+ * schedulerFetch проходит через {@link PolitenessScheduler} в режиме fetchMode,
+ * sleepingFetch - прежняя схема, в которой поток загрузки спит delayMillis перед каждым запросом.
+ * Заглушки запускаются с sun.net.httpserver.nodelay, иначе задержка подтверждений TCP
+ * добавляет к каждому ответу около 40 мс и скрывает разницу между схемами.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class PageFetchBenchmark {
+    private static final int PAGES_COUNT = 200;
+    private static final byte[] PAGE = ("<html><head><title>Страница</title></head><body>"
+            + "<p>Текст страницы для проверки загрузки.</p></body></html>").getBytes(StandardCharsets.UTF_8);
+    @Param({"PLATFORM", "VIRTUAL"})
+    private FetchMode fetchMode;
+    @Param({"8"})
+    private int hostsCount;
+    @Param({"20"})
+    private long delayMillis;
+    @Param({"10", "50"})
+    private long responseLatencyMillis;
+    private final List<HttpServer> servers = new ArrayList<>();
+    private final List<String> links = new ArrayList<>();
+    private PipelineConfiguration pipelineConfiguration;
+    private PageFetcher pageFetcher;
+    private PolitenessScheduler scheduler;
+    private ExecutorService sleepingWorkers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ExecutorService serverThreads = Executors.newVirtualThreadPerTaskExecutor();
+        for (int i = 0; i < hostsCount; i++) {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", exchange -> {
+                try {
+                    Thread.sleep(responseLatencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+                exchange.sendResponseHeaders(200, PAGE.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(PAGE);
+                }
+            });
+            server.setExecutor(serverThreads);
+            server.start();
+            servers.add(server);
+        }
+        for (int i = 0; i < PAGES_COUNT; i++) {
+            HttpServer server = servers.get(i % hostsCount);
+            links.add("http://127.0.0.1:" + server.getAddress().getPort() + "/page-" + i + ".html");
+        }
+        SearchConfiguration searchConfiguration = new SearchConfiguration();
+        searchConfiguration.setUserAgentName("BenchmarkBot");
+        searchConfiguration.setReferrer("http://localhost");
+        pipelineConfiguration = new PipelineConfiguration();
+        pipelineConfiguration.setFetchMode(fetchMode);
+        PolitenessConfiguration politenessConfiguration = new PolitenessConfiguration();
+        politenessConfiguration.setDefaultDelayMillis(delayMillis);
+        politenessConfiguration.setRespectCrawlDelay(false);
+        pageFetcher = new PageFetcher(searchConfiguration, pipelineConfiguration);
+        scheduler = new PolitenessScheduler(pageFetcher, pipelineConfiguration, politenessConfiguration);
+        scheduler.start();
+        sleepingWorkers = Executors.newFixedThreadPool(pipelineConfiguration.getFetchThreads());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.shutdown();
+        sleepingWorkers.shutdownNow();
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Benchmark
+    public int schedulerFetch() throws InterruptedException {
+        CountDownLatch completion = new CountDownLatch(links.size());
+        AtomicInteger fetched = new AtomicInteger();
+        FetchCallback callback = new FetchCallback() {
+            @Override
+            public boolean isActive() {
+                return true;
+            }
+
+            @Override
+            public boolean canAcceptPage() {
+                return true;
+            }
+
+            @Override
+            public void onFetched(String link, Document document, long latencyNanos) {
+                fetched.incrementAndGet();
+                completion.countDown();
+            }
+
+            @Override
+            public void onFailed(String link, Exception exception) {
+                completion.countDown();
+            }
+        };
+        links.forEach(link -> scheduler.submit(link, callback));
+        completion.await();
+        return fetched.get();
+    }
+
+    @Benchmark
+    public int sleepingFetch() throws InterruptedException {
+        CountDownLatch completion = new CountDownLatch(links.size());
+        AtomicInteger fetched = new AtomicInteger();
+        for (String link : links) {
+            sleepingWorkers.execute(() -> {
+                try {
+                    Thread.sleep(delayMillis);
+                    pageFetcher.fetch(link);
+                    fetched.incrementAndGet();
+                } catch (IOException e) {
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    completion.countDown();
+                }
+            });
+        }
+        completion.await();
+        return fetched.get();
+    }
+}
@@ -0,0 +1,79 @@
+package searchengine.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import searchengine.parsers.PageLemmas;
+import searchengine.search.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скорость отбора лучших страниц сайта с разными оценками релевантности на синтетическом индексе:
+ * частоты лемм распределены по закону, близкому к Ципфу, так что в запросе есть и частые, и редкие леммы.
+ * conjunction - пересечение двух лемм, disjunction - ИЛИ тех же лемм через MaxScore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoringBenchmark {
+    private static final int VOCABULARY_SIZE = 5000;
+    private static final int LEMMAS_PER_PAGE = 100;
+    private static final int TOP_COUNT = 10;
+    @Param({"RANK_SUM", "BM25"})
+    private ScoringMode scoring;
+    @Param({"20000"})
+    private int pagesCount;
+    private SiteIndex siteIndex;
+    private RelevanceScorer scorer;
+    private SearchQuery conjunctionQuery;
+    private SearchQuery disjunctionQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        siteIndex = new SiteIndex();
+        for (int pageId = 1; pageId <= pagesCount; pageId++) {
+            siteIndex.addPage(pageId, createPageLemmas(random));
+        }
+        scorer = scoring == ScoringMode.BM25 ? new Bm25Scorer(1.2, 0.75) : new RankSumScorer();
+        conjunctionQuery = new SearchQuery(new LinkedHashSet<>(List.of("l5", "l40")), List.of());
+        disjunctionQuery = SearchQuery.of(new QueryNode.Or(List.of(new QueryNode.Term("l5"),
+                new QueryNode.Term("l40"))));
+    }
+
+    @Benchmark
+    public RankedPages conjunction() {
+        return siteIndex.matchTop(conjunctionQuery, scorer, TOP_COUNT, null, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public RankedPages disjunction() {
+        return siteIndex.matchTop(disjunctionQuery, scorer, TOP_COUNT, null, Integer.MAX_VALUE);
+    }
+
+    private static PageLemmas createPageLemmas(Random random) {
+        Map<Integer, Integer> counts = new TreeMap<>();
+        while (counts.size() < LEMMAS_PER_PAGE) {
+            int lemma = (int) Math.pow(VOCABULARY_SIZE, random.nextDouble()) - 1;
+            counts.merge(lemma, 1 + random.nextInt(3), Integer::sum);
+        }
+        String[] lemmas = new String[counts.size()];
+        int[] lemmaCounts = new int[counts.size()];
+        int[][] positions = new int[counts.size()][];
+        int position = 0;
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+            lemmas[i] = "l" + entry.getKey();
+            lemmaCounts[i] = entry.getValue();
+            positions[i] = new int[entry.getValue()];
+            for (int j = 0; j < positions[i].length; j++) {
+                positions[i][j] = position++;
+            }
+            i++;
+        }
+        return new PageLemmas(lemmas, lemmaCounts, positions, position, new int[0]);
+    }
+}
@@ -0,0 +1,35 @@
+package searchengine.codec;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VarIntCodecTest {
+
+    @Test
+    void roundTripsIncreasingValues() {
+        int[] values = {0, 1, 5, 127, 128, 300, 16_384, 2_097_152, 268_435_456, Integer.MAX_VALUE};
+
+        assertArrayEquals(values, VarIntCodec.decodeDeltas(VarIntCodec.encodeDeltas(values)));
+    }
+
+    @Test
+    void storesSmallDeltasInOneByteEach() {
+        int[] values = {3, 10, 50, 170};
+
+        assertEquals(values.length, VarIntCodec.encodeDeltas(values).length);
+    }
+
+    @Test
+    void usesContinuationBytesForLargeDeltas() {
+        assertEquals(2, VarIntCodec.encodeDeltas(new int[]{128}).length);
+        assertEquals(3, VarIntCodec.encodeDeltas(new int[]{16_384}).length);
+        assertEquals(5, VarIntCodec.encodeDeltas(new int[]{Integer.MAX_VALUE}).length);
+    }
+
+    @Test
+    void decodesMissingAndEmptyDataAsEmptyArray() {
+        assertArrayEquals(new int[0], VarIntCodec.decodeDeltas(null));
+        assertArrayEquals(new int[0], VarIntCodec.decodeDeltas(VarIntCodec.encodeDeltas(new int[0])));
+    }
+}
@@ -0,0 +1,75 @@
+package searchengine.crawler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void keepsSmallValuesExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 10; micros++) {
+            record(histogram, micros);
+        }
+        long[] counts = histogram.getCounts();
+
+        assertEquals(1, LatencyHistogram.getPercentileMicros(counts, null, 0));
+        assertEquals(5, LatencyHistogram.getPercentileMicros(counts, null, 0.5));
+        assertEquals(10, LatencyHistogram.getPercentileMicros(counts, null, 1));
+    }
+
+    @Test
+    void boundsErrorOfLargeValues() {
+        for (long micros : new long[]{17, 100, 1000, 12_345, 1_000_000, 987_654_321}) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            record(histogram, micros);
+
+            long percentile = LatencyHistogram.getPercentileMicros(histogram.getCounts(), null, 0.99);
+            assertTrue(percentile >= micros && percentile <= micros * 1.125, micros + " -> " + percentile);
+        }
+    }
+
+    @Test
+    void countsOnlyValuesRecordedAfterPreviousSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            record(histogram, 10);
+        }
+        long[] previousCounts = histogram.getCounts();
+        for (int i = 0; i < 10; i++) {
+            record(histogram, 5000);
+        }
+        long[] counts = histogram.getCounts();
+
+        assertEquals(10, LatencyHistogram.getPercentileMicros(counts, null, 0.5));
+        long percentile = LatencyHistogram.getPercentileMicros(counts, previousCounts, 0.5);
+        assertTrue(percentile >= 5000 && percentile <= 5000 * 1.125, String.valueOf(percentile));
+    }
+
+    @Test
+    void returnsZeroWithoutRecords() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        record(histogram, 10);
+        long[] counts = histogram.getCounts();
+
+        assertEquals(0, LatencyHistogram.getPercentileMicros(new LatencyHistogram().getCounts(), null, 0.5));
+        assertEquals(0, LatencyHistogram.getPercentileMicros(counts, counts, 0.5));
+    }
+
+    @Test
+    void returnsZeroForDecreasedCounters() {
+        LatencyHistogram previous = new LatencyHistogram();
+        record(previous, 10);
+        record(previous, 20);
+
+        assertEquals(0, LatencyHistogram.getPercentileMicros(new LatencyHistogram().getCounts(),
+                previous.getCounts(), 0.5));
+    }
+
+    private static void record(LatencyHistogram histogram, long micros) {
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+}
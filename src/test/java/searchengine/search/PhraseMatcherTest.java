@@ -0,0 +1,64 @@
+package searchengine.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhraseMatcherTest {
+
+    @Test
+    void matchesExactPhraseAtItsOffsets() {
+        PhraseQuery phrase = new PhraseQuery(new String[]{"быстрый", "поиск"}, new int[]{0, 1}, 0);
+
+        assertTrue(PhraseMatcher.matches(new int[][]{{2, 10}, {5, 11}}, phrase));
+        assertFalse(PhraseMatcher.matches(new int[][]{{2, 10}, {5, 12}}, phrase));
+    }
+
+    @Test
+    void keepsSkippedWordsInExactPhraseOffsets() {
+        PhraseQuery phrase = new PhraseQuery(new String[]{"поиск", "сайт"}, new int[]{0, 2}, 0);
+
+        assertTrue(PhraseMatcher.matches(new int[][]{{4}, {6}}, phrase));
+        assertFalse(PhraseMatcher.matches(new int[][]{{4}, {5}}, phrase));
+    }
+
+    @Test
+    void rejectsPageWithoutOneOfTheLemmas() {
+        PhraseQuery phrase = new PhraseQuery(new String[]{"быстрый", "поиск"}, new int[]{0, 1}, 3);
+
+        assertFalse(PhraseMatcher.matches(new int[][]{{1}, {}}, phrase));
+    }
+
+    @Test
+    void allowsUpToSlopExtraWordsInOrder() {
+        PhraseQuery phrase = new PhraseQuery(new String[]{"быстрый", "поиск"}, new int[]{0, 1}, 2);
+
+        assertTrue(PhraseMatcher.matches(new int[][]{{1}, {4}}, phrase));
+        assertFalse(PhraseMatcher.matches(new int[][]{{1}, {5}}, phrase));
+    }
+
+    @Test
+    void rejectsReversedWordOrderForSloppyPhrase() {
+        PhraseQuery phrase = new PhraseQuery(new String[]{"быстрый", "поиск"}, new int[]{0, 1}, 2);
+
+        assertFalse(PhraseMatcher.matches(new int[][]{{4}, {3}}, phrase));
+    }
+
+    @Test
+    void bindsRepeatedLemmaToDistinctPositions() {
+        PhraseQuery phrase = new PhraseQuery(new String[]{"очень", "очень", "быстрый"}, new int[]{0, 1, 2}, 1);
+        int[] repeated = {3};
+
+        assertFalse(PhraseMatcher.matches(new int[][]{repeated, repeated, {4}}, phrase));
+        int[] twice = {3, 4};
+        assertTrue(PhraseMatcher.matches(new int[][]{twice, twice, {5}}, phrase));
+    }
+
+    @Test
+    void findsShortestOrderedSpanAmongSeveralOccurrences() {
+        PhraseQuery phrase = new PhraseQuery(new String[]{"а", "б", "в"}, new int[]{0, 1, 2}, 1);
+
+        assertTrue(PhraseMatcher.matches(new int[][]{{0, 20}, {10, 21}, {15, 23}}, phrase));
+        assertFalse(PhraseMatcher.matches(new int[][]{{0, 20}, {10, 25}, {15, 30}}, phrase));
+    }
+}
@@ -0,0 +1,106 @@
+package searchengine.search;
+
+import org.apache.lucene.morphology.LuceneMorphology;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import searchengine.parsers.LemmaFinder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class QueryParserTest {
+    private QueryParser parser;
+
+    @BeforeEach
+    void setUp() {
+        LuceneMorphology morphology = mock(LuceneMorphology.class);
+        when(morphology.getNormalForms(anyString())).thenAnswer(invocation -> {
+            String word = invocation.getArgument(0);
+            return List.of(word);
+        });
+        when(morphology.getMorphInfo(anyString())).thenAnswer(invocation -> {
+            String word = invocation.getArgument(0);
+            return List.of(word + "|a " + (word.equals("и") ? "СОЮЗ" : "С мр,ед,им"));
+        });
+        parser = new QueryParser(new LemmaFinder(morphology, 1000));
+    }
+
+    @Test
+    void keepsPlainWordsAsConjunction() {
+        SearchQuery query = parser.parse("кот собака");
+
+        assertFalse(query.isBoolean());
+        assertEquals(Set.of("кот", "собака"), query.getTerms());
+    }
+
+    @Test
+    void parsesPhraseWithSlop() {
+        SearchQuery query = parser.parse("\"серый кот\"~2");
+
+        assertEquals(1, query.getPhrases().size());
+        PhraseQuery phrase = query.getPhrases().get(0);
+        assertArrayEquals(new String[]{"серый", "кот"}, phrase.getLemmas());
+        assertArrayEquals(new int[]{0, 1}, phrase.getOffsets());
+        assertEquals(2, phrase.getSlop());
+    }
+
+    @Test
+    void recognisesUpperCaseOperatorsAndSymbols() {
+        String or = parser.parse("кот OR собака").getNormalizedForm();
+        String not = parser.parse("кот NOT собака").getNormalizedForm();
+
+        assertEquals("(кот OR собака)", or);
+        assertEquals(or, parser.parse("кот ИЛИ собака").getNormalizedForm());
+        assertEquals(or, parser.parse("кот | собака").getNormalizedForm());
+        assertEquals("(NOT собака AND кот)", not);
+        assertEquals(not, parser.parse("кот НЕ собака").getNormalizedForm());
+        assertEquals(not, parser.parse("кот -собака").getNormalizedForm());
+    }
+
+    @Test
+    void keepsLowerCaseOperatorWordsAsTerms() {
+        SearchQuery negation = parser.parse("почему не работает");
+        SearchQuery disjunction = parser.parse("кот или собака");
+
+        assertFalse(negation.isBoolean());
+        assertEquals(Set.of("почему", "не", "работает"), negation.getTerms());
+        assertFalse(disjunction.isBoolean());
+        assertEquals(Set.of("кот", "или", "собака"), disjunction.getTerms());
+        assertDoesNotThrow(() -> parser.parse("не работает"));
+    }
+
+    @Test
+    void groupsOperandsWithParentheses() {
+        SearchQuery query = parser.parse("(кот | собака) мышь");
+
+        assertTrue(query.isBoolean());
+        assertEquals("((кот OR собака) AND мышь)", query.getNormalizedForm());
+    }
+
+    @Test
+    void dropsConditionsWithoutLemmas() {
+        assertEquals(Set.of("кот", "мышь"), parser.parse("кот и мышь").getTerms());
+    }
+
+    @Test
+    void rejectsQueryMadeOnlyOfNegations() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("-собака"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("НЕ собака НЕ мышь"));
+    }
+
+    @Test
+    void rejectsOrBranchMadeOnlyOfNegations() {
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("кот OR -собака"));
+        assertThrows(IllegalArgumentException.class, () -> parser.parse("(кот ИЛИ НЕ собака) мышь"));
+    }
+
+    @Test
+    void acceptsNegationNextToPositiveCondition() {
+        assertDoesNotThrow(() -> parser.parse("кот ИЛИ (мышь -собака)"));
+    }
+}
@@ -0,0 +1,91 @@
+package searchengine.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPlannerTest {
+    private static final QueryNode CAT = new QueryNode.Term("кот");
+    private static final QueryNode DOG = new QueryNode.Term("собака");
+    private static final QueryNode MOUSE = new QueryNode.Term("мышь");
+    private static final QueryNode MISSING = new QueryNode.Term("жираф");
+    private QueryPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, PostingList> postings = new HashMap<>();
+        postings.put("кот", createPostings(1, 2, 3, 5));
+        postings.put("собака", createPostings(2, 3, 4));
+        postings.put("мышь", createPostings(3, 6));
+        planner = new QueryPlanner(postings, new RankSumScorer(), new SiteStatistics(6, 60));
+    }
+
+    @Test
+    void intersectsConjunction() {
+        assertEquals(List.of(2, 3), collect(new QueryNode.And(List.of(CAT, DOG))));
+    }
+
+    @Test
+    void excludesNegatedPages() {
+        assertEquals(List.of(1, 5), collect(new QueryNode.And(List.of(CAT, new QueryNode.Not(DOG)))));
+    }
+
+    @Test
+    void unitesDisjunction() {
+        assertEquals(List.of(2, 3, 4, 6), collect(new QueryNode.Or(List.of(DOG, MOUSE))));
+    }
+
+    @Test
+    void combinesNestedConditions() {
+        QueryNode query = new QueryNode.And(List.of(new QueryNode.Or(List.of(DOG, MOUSE)), new QueryNode.Not(CAT)));
+
+        assertEquals(List.of(4, 6), collect(query));
+    }
+
+    @Test
+    void emptiesConjunctionWithMissingLemma() {
+        assertNull(planner.plan(new QueryNode.And(List.of(CAT, MISSING))));
+    }
+
+    @Test
+    void dropsMissingLemmaFromDisjunction() {
+        assertEquals(List.of(1, 2, 3, 5), collect(new QueryNode.Or(List.of(CAT, MISSING))));
+    }
+
+    @Test
+    void doesNotPlanNegationWithoutPositivePart() {
+        assertNull(planner.plan(new QueryNode.Not(CAT)));
+        assertNull(planner.plan(new QueryNode.And(List.of(new QueryNode.Not(CAT), new QueryNode.Not(DOG)))));
+    }
+
+    @Test
+    void sumsTermScoresOfMatchedPage() {
+        PageIterator iterator = planner.plan(new QueryNode.And(List.of(CAT, DOG)));
+
+        assertEquals(2, iterator.next());
+        assertEquals(4.0f, iterator.score());
+    }
+
+    private List<Integer> collect(QueryNode node) {
+        PageIterator iterator = planner.plan(node);
+        List<Integer> pageIds = new ArrayList<>();
+        for (int pageId = iterator.next(); pageId != PageIterator.NO_MORE_PAGES; pageId = iterator.next()) {
+            pageIds.add(pageId);
+        }
+        return pageIds;
+    }
+
+    private static PostingList createPostings(int... pageIds) {
+        PostingList postingList = new PostingList();
+        for (int pageId : pageIds) {
+            postingList.add(pageId, 2, 10, new byte[]{1});
+        }
+        return postingList;
+    }
+}
@@ -0,0 +1,62 @@
+package searchengine.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchCursorTest {
+    private static final SearchQuery QUERY = new SearchQuery(new LinkedHashSet<>(List.of("кот", "собака")), List.of());
+
+    @Test
+    void decodesEncodedCursor() {
+        SearchCursor cursor = new SearchCursor(SearchCursor.getFingerprint(QUERY, "https://site.ru"),
+                3.5f, 42, 20, 12.25f);
+
+        assertEquals(cursor, SearchCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void rejectsCursorOfWrongLength() {
+        String shortCursor = Base64.getUrlEncoder().encodeToString(new byte[10]);
+
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(shortCursor));
+    }
+
+    @Test
+    void rejectsCursorWithNegativePosition() {
+        String cursor = new SearchCursor(1L, 1f, 2, -1, 1f).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(cursor));
+    }
+
+    @Test
+    void rejectsMalformedBase64() {
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("не курсор"));
+    }
+
+    @Test
+    void followsWithLowerScoreOrHigherPageIdOnEqualScore() {
+        SearchCursor cursor = new SearchCursor(1L, 2f, 10, 5, 4f);
+
+        assertTrue(cursor.isFollowedBy(1, 1.5f));
+        assertTrue(cursor.isFollowedBy(11, 2f));
+        assertFalse(cursor.isFollowedBy(10, 2f));
+        assertFalse(cursor.isFollowedBy(9, 2f));
+        assertFalse(cursor.isFollowedBy(100, 2.5f));
+    }
+
+    @Test
+    void fingerprintDependsOnQueryAndSite() {
+        long fingerprint = SearchCursor.getFingerprint(QUERY, "https://site.ru");
+
+        assertEquals(fingerprint, SearchCursor.getFingerprint(
+                new SearchQuery(new LinkedHashSet<>(List.of("кот", "собака")), List.of()), "https://site.ru"));
+        assertNotEquals(fingerprint, SearchCursor.getFingerprint(QUERY, "https://other.ru"));
+        assertNotEquals(fingerprint, SearchCursor.getFingerprint(
+                new SearchQuery(new LinkedHashSet<>(List.of("кот")), List.of()), "https://site.ru"));
+    }
+}
@@ -0,0 +1,90 @@
+package searchengine.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionIndexTest {
+    private static final String ALPHABET = "абвгд";
+
+    @Test
+    void suggestsMostFrequentLemmasWithPrefix() {
+        SuggestionIndex index = SuggestionIndex.build(Map.of("кот", 5, "котёнок", 9, "кофе", 7, "кит", 20, "мышь", 1));
+
+        assertEquals(List.of("котёнок", "кофе"), index.suggest("ко", 2));
+        assertEquals(List.of("котёнок", "кот"), index.suggest("кот", 5));
+        assertTrue(index.suggest("я", 5).isEmpty());
+    }
+
+    @Test
+    void mergesFrequenciesOfSites() {
+        SuggestionIndex index = SuggestionIndex.merge(List.of(
+                SuggestionIndex.build(Map.of("кот", 1, "кофе", 3)),
+                SuggestionIndex.build(Map.of("кот", 5))));
+
+        assertEquals(2, index.size());
+        assertEquals(List.of("кот", "кофе"), index.suggest("ко", 2));
+    }
+
+    @Test
+    void findsSimilarLemmasCloserAndMoreFrequentFirst() {
+        SuggestionIndex index = SuggestionIndex.build(Map.of("кот", 5, "кит", 20, "код", 9, "котел", 1, "мышь", 3));
+
+        assertEquals(List.of("кот", "кит", "код"), index.findSimilar("кот", 1, 10));
+        assertEquals(List.of("кот", "кит"), index.findSimilar("кот", 1, 2));
+        assertEquals(List.of("кот", "кит", "код", "котел"), index.findSimilar("кот", 2, 10));
+    }
+
+    @Test
+    void findsSameLemmasAsFullLevenshtein() {
+        Random random = new Random(7);
+        Map<String, Integer> frequencies = new HashMap<>();
+        while (frequencies.size() < 2000) {
+            frequencies.put(randomWord(random, 1 + random.nextInt(8)), 1 + random.nextInt(50));
+        }
+        SuggestionIndex index = SuggestionIndex.build(frequencies);
+        for (int i = 0; i < 300; i++) {
+            String word = randomWord(random, 1 + random.nextInt(9));
+            int maxDistance = 1 + random.nextInt(2);
+
+            assertEquals(findSimilarBruteForce(frequencies, word, maxDistance),
+                    index.findSimilar(word, maxDistance, Integer.MAX_VALUE), word + " ~" + maxDistance);
+        }
+    }
+
+    private static List<String> findSimilarBruteForce(Map<String, Integer> frequencies, String word, int maxDistance) {
+        Map<String, Integer> distances = new HashMap<>();
+        frequencies.keySet().forEach(lemma -> distances.put(lemma, getDistance(lemma, word)));
+        return frequencies.keySet().stream()
+                .filter(lemma -> distances.get(lemma) <= maxDistance)
+                .sorted(Comparator.<String>comparingInt(distances::get)
+                        .thenComparing(lemma -> -frequencies.get(lemma))
+                        .thenComparing(Comparator.naturalOrder()))
+                .toList();
+    }
+
+    private static int getDistance(String a, String b) {
+        int[][] distances = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                if (i == 0 || j == 0) {
+                    distances[i][j] = i + j;
+                } else {
+                    int substitution = distances[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                    distances[i][j] = Math.min(substitution, Math.min(distances[i - 1][j], distances[i][j - 1]) + 1);
+                }
+            }
+        }
+        return distances[a.length()][b.length()];
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,91 @@
+package searchengine.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKSelectorTest {
+
+    @Test
+    void keepsBestPagesInDescendingScoreOrder() {
+        TopKSelector selector = new TopKSelector(3);
+        float[] scores = {0.5f, 2.0f, 1.0f, 3.0f, 0.1f, 2.5f};
+        for (int pageId = 0; pageId < scores.length; pageId++) {
+            selector.offer(pageId, scores[pageId]);
+        }
+
+        ScoredPages pages = selector.toSortedPages();
+
+        assertEquals(3, pages.size());
+        assertArrayEquals(new int[]{3, 5, 1}, pageIds(pages));
+        assertEquals(3.0f, pages.getScore(0));
+        assertEquals(2.0f, pages.getScore(2));
+    }
+
+    @Test
+    void prefersLowerPageIdOnEqualScores() {
+        TopKSelector selector = new TopKSelector(2);
+        selector.offer(9, 1.0f);
+        selector.offer(4, 1.0f);
+        selector.offer(7, 1.0f);
+        selector.offer(2, 1.0f);
+
+        assertArrayEquals(new int[]{2, 4}, pageIds(selector.toSortedPages()));
+    }
+
+    @Test
+    void reportsMinimumScoreOnceFull() {
+        TopKSelector selector = new TopKSelector(2);
+        selector.offer(1, 5.0f);
+        assertFalse(selector.isFull());
+
+        selector.offer(2, 3.0f);
+        selector.offer(3, 4.0f);
+
+        assertTrue(selector.isFull());
+        assertEquals(4.0f, selector.getMinScore());
+    }
+
+    @Test
+    void returnsNothingForZeroLimit() {
+        TopKSelector selector = new TopKSelector(0);
+        selector.offer(1, 1.0f);
+
+        assertFalse(selector.isFull());
+        assertEquals(0, selector.toSortedPages().size());
+    }
+
+    @Test
+    void matchesFullSortOnRandomInput() {
+        Random random = new Random(7);
+        int count = 1000;
+        float[] scores = new float[count];
+        TopKSelector selector = new TopKSelector(25);
+        for (int pageId = 0; pageId < count; pageId++) {
+            scores[pageId] = random.nextInt(100);
+            selector.offer(pageId, scores[pageId]);
+        }
+
+        ScoredPages pages = selector.toSortedPages();
+
+        Integer[] expected = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            expected[i] = i;
+        }
+        Arrays.sort(expected, (a, b) -> scores[a] != scores[b] ? Float.compare(scores[b], scores[a]) : a - b);
+        for (int i = 0; i < pages.size(); i++) {
+            assertEquals(expected[i], pages.getPageId(i));
+        }
+    }
+
+    private static int[] pageIds(ScoredPages pages) {
+        int[] pageIds = new int[pages.size()];
+        for (int i = 0; i < pageIds.length; i++) {
+            pageIds[i] = pages.getPageId(i);
+        }
+        return pageIds;
+    }
+}